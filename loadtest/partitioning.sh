@@ -0,0 +1,122 @@
+#!/usr/bin/env bash
+# Compares the plain users table with the hash-partitioned layout from db/partitioning, at scale,
+# with pgbench against the PostgreSQL from docker-compose.yml:
+#
+#   docker compose up -d postgres
+#   ROWS=10000000 loadtest/partitioning.sh
+#   ROWS=100000000 loadtest/partitioning.sh      # needs ~40GB of disk and a long seed
+#
+# Both layouts are seeded with ROWS users in their own schema (bench_plain, bench_partitioned).
+# Each runs findById, findByEmail and single-row inserts for DURATION seconds with prepared
+# statements, as the application sends them. Prints transactions per second and mean latency.
+set -euo pipefail
+
+export PGHOST=${PGHOST:-localhost} PGPORT=${PGPORT:-5432} PGUSER=${PGUSER:-postgres}
+export PGPASSWORD=${PGPASSWORD:-postgres} PGDATABASE=${PGDATABASE:-userdb}
+ROWS=${ROWS:-10000000}
+DURATION=${DURATION:-60}
+CLIENTS=${CLIENTS:-16}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+psql -q -v ON_ERROR_STOP=1 -v rows="$ROWS" <<'SQL'
+DROP SCHEMA IF EXISTS bench_plain CASCADE;
+DROP SCHEMA IF EXISTS bench_partitioned CASCADE;
+CREATE SCHEMA bench_plain;
+CREATE SCHEMA bench_partitioned;
+
+-- As after V1 to V5
+CREATE TABLE bench_plain.users (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- As after V11 to V13
+SET search_path = bench_partitioned;
+CREATE SEQUENCE users_id_seq;
+CREATE TABLE users (
+    id BIGINT NOT NULL DEFAULT nextval('users_id_seq'),
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+CREATE TABLE user_emails (
+    email VARCHAR(100) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (email)
+) PARTITION BY HASH (email);
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE users_p%s PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+        EXECUTE format('CREATE TABLE user_emails_p%s PARTITION OF user_emails FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+CREATE FUNCTION sync_user_email() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO bench_partitioned.user_emails (email, user_id) VALUES (NEW.email, NEW.id);
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+RESET search_path;
+
+-- Seeded without the trigger, then the trigger is added for the insert benchmark
+INSERT INTO bench_plain.users (name, email)
+SELECT 'User ' || n, 'user' || n || '@email.com' FROM generate_series(1, :rows) n;
+INSERT INTO bench_partitioned.users (id, name, email)
+SELECT n, 'User ' || n, 'user' || n || '@email.com' FROM generate_series(1, :rows) n;
+INSERT INTO bench_partitioned.user_emails (email, user_id)
+SELECT 'user' || n || '@email.com', n FROM generate_series(1, :rows) n;
+SELECT setval('bench_plain.users_id_seq', :rows);
+SELECT setval('bench_partitioned.users_id_seq', :rows);
+CREATE TRIGGER users_sync_email AFTER INSERT ON bench_partitioned.users
+    FOR EACH ROW EXECUTE FUNCTION bench_partitioned.sync_user_email();
+
+VACUUM ANALYZE bench_plain.users;
+VACUUM ANALYZE bench_partitioned.users;
+VACUUM ANALYZE bench_partitioned.user_emails;
+SQL
+
+cat > "$WORK/find_by_id.sql" <<'EOF_SQL'
+\set id random(1, :rows)
+select id, name, email, updated_at, version from users where id = :id;
+EOF_SQL
+
+cat > "$WORK/find_by_email_plain.sql" <<'EOF_SQL'
+\set n random(1, :rows)
+select id, name, email from users where email = 'user' || :n || '@email.com';
+EOF_SQL
+
+cat > "$WORK/find_by_email_partitioned.sql" <<'EOF_SQL'
+\set n random(1, :rows)
+select u.id, u.name, u.email from users u
+where u.id = (select e.user_id from user_emails e where e.email = 'user' || :n || '@email.com');
+EOF_SQL
+
+cat > "$WORK/insert.sql" <<'EOF_SQL'
+insert into users (name, email, updated_at)
+values ('Bench', 'bench-' || :client_id || '-' || (random() * 1e15)::bigint || '@email.com', now());
+EOF_SQL
+
+run() {
+    local layout=$1 name=$2 script=$3
+    PGOPTIONS="-c search_path=bench_$layout" pgbench -n -M prepared -c "$CLIENTS" -j "$CLIENTS" \
+        -T "$DURATION" -D rows="$ROWS" -f "$script" > "$WORK/out" 2>&1
+    printf '%-12s %-14s %12s %12s\n' "$layout" "$name" \
+        "$(awk '/^tps/ {print int($3)}' "$WORK/out")" \
+        "$(awk '/latency average/ {print $4}' "$WORK/out")"
+}
+
+printf 'rows=%s clients=%s duration=%ss\n' "$ROWS" "$CLIENTS" "$DURATION"
+printf '%-12s %-14s %12s %12s\n' layout query tps latency_ms
+for layout in plain partitioned; do
+    run "$layout" findById "$WORK/find_by_id.sql"
+    run "$layout" findByEmail "$WORK/find_by_email_$layout.sql"
+    run "$layout" insert "$WORK/insert.sql"
+done
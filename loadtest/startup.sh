@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Compares cold start of the three runtime builds against the PostgreSQL from docker-compose.yml:
+#
+#   docker compose up -d postgres
+#   ./mvnw -Paot,openapi -DskipTests package             # jar with AOT code and the pre-built API document
+#   ./mvnw -Pnative -DskipTests native:compile           # optional, needs GraalVM
+#   loadtest/startup.sh
+#
+# Each variant is started RUNS times. Time to ready is measured until /actuator/health reports UP;
+# RSS is read from the process right after. The CDS archive is created on the first jvm-aot-cds run.
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+RUNS=${RUNS:-3}
+JAR=target/demo2-0.0.1-SNAPSHOT.jar
+EXTRACTED=target/extracted
+NATIVE=target/demo2
+
+wait_ready() {
+    until curl -sf "$BASE_URL/actuator/health" | grep -q '"UP"'; do
+        sleep 0.05
+    done
+}
+
+measure() {
+    local name=$1; shift
+    local total_ms=0 total_rss=0
+    for _ in $(seq "$RUNS"); do
+        local start end pid rss
+        start=$(date +%s%N)
+        "$@" > /dev/null 2>&1 &
+        pid=$!
+        wait_ready
+        end=$(date +%s%N)
+        rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+        kill "$pid"; wait "$pid" 2> /dev/null || true
+        total_ms=$((total_ms + (end - start) / 1000000))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-14s %10d %10d\n' "$name" $((total_ms / RUNS)) $((total_rss / RUNS / 1024))
+}
+
+printf '%-14s %10s %10s\n' variant ready_ms rss_mb
+
+measure jvm java -jar "$JAR"
+# Same jar without the runtime OpenAPI scanner and swagger-ui, as in the prod profile
+measure jvm-no-docs java -Dspringdoc.api-docs.enabled=false -Dspringdoc.swagger-ui.enabled=false -jar "$JAR"
+
+rm -rf "$EXTRACTED"
+java -Djarmode=tools -jar "$JAR" extract --destination "$EXTRACTED"
+java -XX:ArchiveClassesAtExit="$EXTRACTED/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$EXTRACTED/demo2-0.0.1-SNAPSHOT.jar" > /dev/null
+measure jvm-aot-cds java -XX:SharedArchiveFile="$EXTRACTED/app.jsa" -Dspring.aot.enabled=true \
+    -jar "$EXTRACTED/demo2-0.0.1-SNAPSHOT.jar"
+
+if [ -x "$NATIVE" ]; then
+    measure native "$NATIVE"
+fi
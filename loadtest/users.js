@@ -0,0 +1,67 @@
+// k6 load test for the /users API. Run it once against each runtime mode and compare:
+//
+//   ./mvnw spring-boot:run                                               # servlet + JPA
+//   SPRING_PROFILES_ACTIVE=reactive ./mvnw spring-boot:run               # WebFlux + R2DBC
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=2000 loadtest/users.js
+//
+// Each virtual user keeps its connection open and pauses between requests (THINK_TIME seconds),
+// modelling many slow clients. Record p95/p99 latency, error rate and the server's
+// jvm_threads_live_threads from /actuator/prometheus for both runs.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000');
+const THINK_TIME = parseFloat(__ENV.THINK_TIME || '1');
+const SEED_USERS = parseInt(__ENV.SEED_USERS || '1000');
+
+export const options = {
+    scenarios: {
+        slow_clients: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const users = [];
+    for (let i = 0; i < SEED_USERS; i++) {
+        users.push({ name: `Load ${i}`, email: `load-${Date.now()}-${i}@email.com` });
+    }
+    const res = http.post(`${BASE_URL}/users/batch`, JSON.stringify(users), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    if (res.status === 200) {
+        return { ids: res.json('results').filter((r) => r.user).map((r) => r.user.id) };
+    }
+    // The batch endpoint is servlet-only; fall back to one create per user
+    const ids = [];
+    for (const user of users) {
+        const created = http.post(`${BASE_URL}/users?upsert=true`, JSON.stringify(user), {
+            headers: { 'Content-Type': 'application/json' },
+        });
+        ids.push(created.json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+
+    const byId = http.get(`${BASE_URL}/users/${id}`, { tags: { name: 'GET /users/{id}' } });
+    check(byId, { 'get by id is 200': (r) => r.status === 200 });
+
+    const page = http.get(`${BASE_URL}/users?limit=50`, { tags: { name: 'GET /users?limit' } });
+    check(page, { 'page is 200': (r) => r.status === 200 });
+
+    sleep(THINK_TIME);
+}
@@ -0,0 +1,61 @@
+// k6 write load test for the JDBC settings in the prod profile. Start PostgreSQL from
+// docker-compose.yml, then run the application once with the default profile and once
+// with prod, and compare:
+//
+//   docker compose up -d postgres
+//   ./mvnw spring-boot:run                                               # defaults
+//   SPRING_PROFILES_ACTIVE=prod ./mvnw spring-boot:run                   # tuned pool and driver
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/writes.js
+//
+// Each iteration sends one POST /users/batch of BATCH_SIZE users and one single-user create.
+// Record the batch p95, users inserted per second (users_created) and
+// hikaricp_connections_pending from /actuator/prometheus for both runs.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '20');
+const BATCH_SIZE = parseInt(__ENV.BATCH_SIZE || '500');
+const DURATION = __ENV.DURATION || '2m';
+
+const usersCreated = new Counter('users_created');
+
+export const options = {
+    scenarios: {
+        writers: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export default function () {
+    const prefix = `w-${__VU}-${__ITER}-${Date.now()}`;
+
+    const users = [];
+    for (let i = 0; i < BATCH_SIZE; i++) {
+        users.push({ name: `Writer ${i}`, email: `${prefix}-${i}@email.com` });
+    }
+    const batch = http.post(`${BASE_URL}/users/batch`, JSON.stringify(users), {
+        headers: JSON_HEADERS,
+        tags: { name: 'POST /users/batch' },
+    });
+    if (check(batch, { 'batch is 200': (r) => r.status === 200 })) {
+        usersCreated.add(batch.json('created'));
+    }
+
+    const single = http.post(`${BASE_URL}/users`, JSON.stringify({ name: 'Single', email: `${prefix}@email.com` }), {
+        headers: JSON_HEADERS,
+        tags: { name: 'POST /users' },
+    });
+    if (check(single, { 'create is 201': (r) => r.status === 201 })) {
+        usersCreated.add(1);
+    }
+}
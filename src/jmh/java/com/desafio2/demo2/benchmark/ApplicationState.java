@@ -0,0 +1,68 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.Demo2Application;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.repository.UserRepository;
+import com.desafio2.demo2.service.UserService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application once per fork on the in-memory H2 "test" profile and
+ * seeds {@code users} rows, so service and repository benchmarks run against a
+ * real Spring context, real transactions and a real (embedded) database.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    @Param({"1000"})
+    public int users;
+
+    public ConfigurableApplicationContext context;
+    public UserService service;
+    public UserRepository repository;
+    public List<Long> ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Demo2Application.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN", "--logging.level.com.desafio2.demo2=WARN");
+
+        service = context.getBean(UserService.class);
+        repository = context.getBean(UserRepository.class);
+
+        List<User> seed = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            seed.add(new User("Seed " + i, "seed" + i + "@email.com"));
+        }
+        ids = repository.saveAll(seed).stream().map(User::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public Long anyId() {
+        return ids.get((int) (sequence.incrementAndGet() % ids.size()));
+    }
+
+    public String uniqueEmail() {
+        return "bench" + sequence.incrementAndGet() + "@email.com";
+    }
+}
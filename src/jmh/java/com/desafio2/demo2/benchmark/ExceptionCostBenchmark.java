@@ -0,0 +1,70 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.exception.GlobalExceptionHandler;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.exception.dto.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The 404 path before and after the stackless {@link UserNotFoundException}. "before" builds
+ * an ordinary exception with the same message, which captures its stack trace; "after" builds
+ * the real one. The exception is created {@code depth} frames down, since a stack trace costs
+ * per frame and a Spring MVC request is well over 100 frames deep by the time the service throws.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionCostBenchmark {
+
+    @Param({"10", "150"})
+    private int depth;
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new ErrorMetrics(new SimpleMeterRegistry()));
+        request = new MockHttpServletRequest("GET", "/users/42");
+    }
+
+    @Benchmark
+    public RuntimeException notFoundBefore() {
+        return atDepth(depth, () -> new RuntimeException("User not found with id: " + 42L));
+    }
+
+    @Benchmark
+    public RuntimeException notFoundAfter() {
+        return atDepth(depth, () -> new UserNotFoundException(42L));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> notFoundResponseAfter() {
+        return handler.handleUserNotFound((UserNotFoundException) atDepth(depth, () -> new UserNotFoundException(42L)),
+                request);
+    }
+
+    private static RuntimeException atDepth(int frames, Supplier<RuntimeException> exception) {
+        return frames == 0 ? exception.get() : atDepth(frames - 1, exception);
+    }
+}
@@ -0,0 +1,65 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.controller.UserController;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.exception.GlobalExceptionHandler;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.exception.dto.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the error paths, including building the exception itself: a 404 from
+ * {@link UserNotFoundException} and a 400 from bean validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private MethodParameter createParameter;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler(new ErrorMetrics(new SimpleMeterRegistry()));
+        request = new MockHttpServletRequest("GET", "/users/42");
+        createParameter = new MethodParameter(
+                UserController.class.getMethod("create", UserRequestDTO.class), 0);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> userNotFound() {
+        return handler.handleUserNotFound(new UserNotFoundException(42L), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> validationFailure() {
+        UserRequestDTO target = new UserRequestDTO("", "not-an-email");
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(target, "userRequestDTO");
+        bindingResult.rejectValue("name", "NotBlank", "Name is required");
+        bindingResult.rejectValue("email", "Email", "Email must be valid");
+        return handler.handleValidation(new MethodArgumentNotValidException(createParameter, bindingResult), request);
+    }
+}
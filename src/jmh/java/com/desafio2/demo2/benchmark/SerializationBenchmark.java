@@ -0,0 +1,63 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    public int size;
+
+    // json: reflective getters; json-blackbird and cbor-blackbird: what the API uses
+    @Param({"json", "json-blackbird", "cbor-blackbird"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponseDTO> users;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (format.endsWith("-blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        if (format.startsWith("cbor")) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+        users = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            users.add(new UserResponseDTO(i, "User " + i, "user" + i + "@email.com"));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,78 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    private static final int LOOKUP_SIZE = 50;
+
+    @Benchmark
+    public User save(ApplicationState state) {
+        return state.repository.save(new User("Bench", state.uniqueEmail()));
+    }
+
+    @Benchmark
+    public Optional<User> findById(ApplicationState state) {
+        return state.repository.findById(state.anyId());
+    }
+
+    @Benchmark
+    public Optional<UserResponseDTO> findDtoById(ApplicationState state) {
+        return state.repository.findDtoById(state.anyId());
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> findDtosByIdIn(ApplicationState state) {
+        return state.repository.findDtosByIdIn(lookupIds(state));
+    }
+
+    /**
+     * What a client of GET /users/{id} costs the database for the same {@value #LOOKUP_SIZE} users.
+     */
+    @Benchmark
+    public void findDtoByIdOneByOne(ApplicationState state, Blackhole blackhole) {
+        for (Long id : lookupIds(state)) {
+            blackhole.consume(state.repository.findDtoById(id));
+        }
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> findPageAfter(ApplicationState state) {
+        return state.repository.findPageAfter(state.anyId(), PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public Optional<Long> updateNameAndEmail(ApplicationState state) {
+        Long id = state.anyId();
+        return state.repository.updateNameAndEmail(
+                id, "Updated", "seed-updated-" + id + "@email.com", User.currentTimestamp());
+    }
+
+    private static List<Long> lookupIds(ApplicationState state) {
+        List<Long> ids = new ArrayList<>(LOOKUP_SIZE);
+        for (int i = 0; i < LOOKUP_SIZE; i++) {
+            ids.add(state.anyId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,43 @@
+package com.desafio2.demo2.benchmark;
+
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Benchmark
+    public UserResponseDTO create(ApplicationState state) {
+        return state.service.create(new UserRequestDTO("Bench", state.uniqueEmail()));
+    }
+
+    @Benchmark
+    public UserResponseDTO findById(ApplicationState state) {
+        return state.service.findById(state.anyId());
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> findAll(ApplicationState state) {
+        return state.service.findAll();
+    }
+
+    @Benchmark
+    public UserPageResponseDTO findPage(ApplicationState state) {
+        return state.service.findPage(state.anyId(), 100);
+    }
+}
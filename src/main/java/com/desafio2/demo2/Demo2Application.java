@@ -1,9 +1,20 @@
 package com.desafio2.demo2;
 
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.UserChangesResponseDTO;
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.dto.ApiError;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+// DTOs that are read or written through the ObjectMapper directly (NDJSON, SSE) or built by
+// JPQL constructor expressions, which AOT cannot infer from controller signatures
+@SpringBootApplication(proxyBeanMethods = false)
+@RegisterReflectionForBinding({UserRequestDTO.class, UserResponseDTO.class, BatchCreateResponseDTO.class,
+		UserEventDTO.class, UserChangesResponseDTO.class, ApiError.class})
 public class Demo2Application {
 
 	public static void main(String[] args) {
@@ -0,0 +1,11 @@
+package com.desafio2.demo2.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+}
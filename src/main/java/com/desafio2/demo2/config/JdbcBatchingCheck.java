@@ -0,0 +1,99 @@
+package com.desafio2.demo2.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.generator.Generator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logs a warning at startup for each setting that silently turns JDBC batching off:
+ * a batch size of 0 or 1, unordered inserts, an entity whose id is generated by the
+ * database on insert (IDENTITY), or a PostgreSQL connection without
+ * {@code reWriteBatchedInserts}. The application still starts; batch endpoints just
+ * fall back to one round trip per row.
+ */
+@Component
+public class JdbcBatchingCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchingCheck.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    public JdbcBatchingCheck(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warnIfBatchingDisabled() {
+        List<String> problems = findProblems();
+        problems.forEach(problem -> logger.warn("JDBC batching: {}", problem));
+        if (problems.isEmpty()) {
+            logger.debug("JDBC batching enabled");
+        }
+    }
+
+    public List<String> findProblems() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        SessionFactoryOptions options = sessionFactory.getSessionFactoryOptions();
+        List<String> problems = new ArrayList<>();
+
+        if (options.getJdbcBatchSize() <= 1) {
+            problems.add("hibernate.jdbc.batch_size is " + options.getJdbcBatchSize()
+                    + "; every insert and update is sent on its own");
+        }
+        if (!options.isOrderInsertsEnabled()) {
+            problems.add("hibernate.order_inserts is off; inserts into different tables break each other's batches");
+        }
+
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            Generator generator = persister.getGenerator();
+            if (generator != null && generator.generatedOnExecution()) {
+                problems.add(persister.getEntityName() + " has a database-generated (IDENTITY) id; "
+                        + "its inserts run immediately and are never batched. Use a pooled sequence instead");
+            }
+        });
+
+        String postgresUrl = postgresJdbcUrl();
+        if (postgresUrl != null && !postgresUrl.contains("reWriteBatchedInserts=true")
+                && !"true".equals(hikariProperty("reWriteBatchedInserts"))) {
+            problems.add("reWriteBatchedInserts is off; PostgreSQL receives one INSERT per row of each batch");
+        }
+
+        return problems;
+    }
+
+    private String postgresJdbcUrl() {
+        HikariDataSource hikari = hikari();
+        if (hikari == null || hikari.getJdbcUrl() == null || !hikari.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+            return null;
+        }
+        return hikari.getJdbcUrl();
+    }
+
+    private String hikariProperty(String name) {
+        HikariDataSource hikari = hikari();
+        return hikari == null ? null : hikari.getDataSourceProperties().getProperty(name);
+    }
+
+    private HikariDataSource hikari() {
+        try {
+            // Also sees through ConnectionPermitDataSource when virtual threads are on
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
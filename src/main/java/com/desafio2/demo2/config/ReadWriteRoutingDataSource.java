@@ -0,0 +1,189 @@
+package com.desafio2.demo2.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to PostgreSQL replicas and everything else to the primary.
+ * <p>
+ * The physical connection is only fetched at the first statement, after the transaction
+ * manager has marked it read-only, so {@code @Transactional(readOnly = true)} repository
+ * methods pick a replica (round robin) while writes, and reads inside a write transaction,
+ * stay on the primary. A replica that fails to hand out a connection or its periodic
+ * health check is skipped until a later check succeeds; with none left, reads go to the
+ * primary. {@link #pinToPrimary(boolean)} keeps the current thread's reads on the primary,
+ * for clients that must see their own writes before the replicas catch up, and
+ * {@link #onPrimary(Supplier)} does the same for a single read whose result outlives the
+ * request, such as a value loaded into a cache.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    /**
+     * @param healthCheckInterval how often replicas are validated; zero turns the
+     *                            background check off ({@link #checkReplicas()} still works)
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration healthCheckInterval) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        setReadOnlyDataSource(new ReplicaDataSource());
+
+        if (healthCheckInterval.isZero() || this.replicas.isEmpty()) {
+            this.healthChecks = null;
+        } else {
+            this.healthChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("replica-health")
+                    .daemon(true)
+                    .factory());
+            long millis = healthCheckInterval.toMillis();
+            healthChecks.scheduleWithFixedDelay(this::checkReplicas, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            pinnedToPrimary.set(Boolean.TRUE);
+        } else {
+            pinnedToPrimary.remove();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return pinnedToPrimary.get() != null;
+    }
+
+    /**
+     * Runs {@code read} with the current thread pinned to the primary, leaving an outer pin
+     * (a client within its read-your-writes window) in place afterwards.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary(true);
+        try {
+            return read.get();
+        } finally {
+            pinToPrimary(false);
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Validates one connection from every replica and updates which ones take reads.
+     */
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp(i);
+                } else {
+                    replica.markDown(i, "connection is not valid");
+                }
+            } catch (SQLException | RuntimeException ex) {
+                replica.markDown(i, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools and the primary pool, which the
+     * container would otherwise skip because it only sees this wrapper.
+     */
+    @Override
+    public void close() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void markUp(int index) {
+            if (!healthy) {
+                logger.info("Replica {} is back, sending reads to it again", index);
+                healthy = true;
+            }
+        }
+
+        private void markDown(int index, String reason) {
+            if (healthy) {
+                logger.warn("Replica {} is unavailable, skipping it for reads: {}", index, reason);
+                healthy = false;
+            }
+        }
+    }
+
+    private final class ReplicaDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!isPinnedToPrimary()) {
+                int size = replicas.size();
+                int start = next.getAndIncrement();
+                for (int i = 0; i < size; i++) {
+                    int index = Math.floorMod(start + i, size);
+                    Replica replica = replicas.get(index);
+                    if (!replica.healthy) {
+                        continue;
+                    }
+                    try {
+                        return replica.dataSource.getConnection();
+                    } catch (SQLException ex) {
+                        replica.markDown(index, ex.getMessage());
+                    }
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            // Replica pools carry their own credentials
+            return getConnection();
+        }
+    }
+}
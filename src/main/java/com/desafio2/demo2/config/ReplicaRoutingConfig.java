@@ -0,0 +1,84 @@
+package com.desafio2.demo2.config;
+
+import com.desafio2.demo2.filter.ReadYourWritesFilter;
+import com.desafio2.demo2.limit.ClientIdentity;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in {@code users.replicas.urls}. The
+ * primary pool Spring Boot builds from {@code spring.datasource.*} is wrapped in a
+ * {@link ReadWriteRoutingDataSource}; each replica gets its own read-only pool, tuned with
+ * the same {@code spring.datasource.hikari.*} settings as the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "users.replicas.urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor readWriteRoutingPostProcessor(Environment environment) {
+        Duration healthCheckInterval = environment.getProperty(
+                "users.replicas.health-check-interval", Duration.class, Duration.ofSeconds(5));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource primary
+                        && !(bean instanceof ReadWriteRoutingDataSource)) {
+                    return new ReadWriteRoutingDataSource(primary, replicas(environment), healthCheckInterval);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${users.replicas.sticky-window:5s}") Duration stickyWindow,
+            @Value("${users.limits.client-header:X-Client-Id}") String clientHeader,
+            @Value("${users.limits.trusted-proxies:}") String[] trustedProxies) {
+        return new ReadYourWritesFilter(stickyWindow, new ClientIdentity(clientHeader, trustedProxies));
+    }
+
+    static List<DataSource> replicas(Environment environment) {
+        String[] urls = environment.getRequiredProperty("users.replicas.urls", String[].class);
+        String username = environment.getProperty("users.replicas.username",
+                environment.getProperty("spring.datasource.username"));
+        String password = environment.getProperty("users.replicas.password",
+                environment.getProperty("spring.datasource.password"));
+        int poolSize = environment.getProperty("users.replicas.pool-size", Integer.class, 10);
+        Binder binder = Binder.get(environment);
+
+        List<DataSource> replicas = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            // Same timeouts, auto-commit and driver properties as the primary: Hibernate is
+            // told once (provider_disables_autocommit) how every connection behaves
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Start even if a replica is down; the health check takes it out of rotation
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+}
@@ -0,0 +1,45 @@
+package com.desafio2.demo2.config;
+
+import com.desafio2.demo2.service.UserChangeFeed;
+import com.desafio2.demo2.service.UserEventRelay;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/**
+ * Runs the outbox relay and the change feed poll on a fixed delay. Set
+ * {@code users.events.relay-enabled=false} on instances that should not publish (and in
+ * tests, which call the relay directly); they still poll, so their SSE subscribers see
+ * events published elsewhere.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final UserEventRelay relay;
+    private final UserChangeFeed feed;
+    private final boolean relayEnabled;
+    private final Duration interval;
+
+    public SchedulingConfig(UserEventRelay relay,
+                            UserChangeFeed feed,
+                            @Value("${users.events.relay-enabled:true}") boolean relayEnabled,
+                            @Value("${users.events.relay-interval-ms:500}") long intervalMillis) {
+        this.relay = relay;
+        this.feed = feed;
+        this.relayEnabled = relayEnabled;
+        this.interval = Duration.ofMillis(intervalMillis);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (relayEnabled) {
+            registrar.addFixedDelayTask(relay::relay, interval);
+        }
+        registrar.addFixedDelayTask(feed::poll, interval);
+    }
+}
@@ -0,0 +1,34 @@
+package com.desafio2.demo2.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Response encodings for service-to-service reads: {@code Accept: application/cbor} gets the
+ * same DTOs as binary CBOR, and both JSON and CBOR mappers access DTO properties through
+ * generated lambdas (Blackbird) instead of reflective calls.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SerializationConfig {
+
+    // Registered with every ObjectMapper Spring Boot builds; off for native images if needed
+    @Bean
+    @ConditionalOnProperty(name = "users.json.blackbird", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Built from Boot's builder so it shares the JSON mapper's modules and settings
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
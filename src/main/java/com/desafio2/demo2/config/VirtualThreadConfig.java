@@ -0,0 +1,58 @@
+package com.desafio2.demo2.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot already
+ * moves Tomcat, MVC async work and the task executors onto virtual threads; this
+ * puts the connection pool behind a {@link ConnectionPermitDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Declared with its own type so the container sees it is Ordered before creating it
+    @Bean
+    static ConnectionPermitPostProcessor connectionPermitPostProcessor(Environment environment) {
+        Duration timeout = environment.getProperty("users.db.permit-timeout", Duration.class, Duration.ofSeconds(5));
+        int maxWaiting = environment.getProperty("users.db.max-waiting", Integer.class, 1000);
+
+        return new ConnectionPermitPostProcessor(timeout, maxWaiting);
+    }
+
+    /**
+     * Ordered so it runs before unordered post-processors, such as the replica routing
+     * wrapper, and still finds the Hikari pool to put the gate on.
+     */
+    static final class ConnectionPermitPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Duration timeout;
+        private final int maxWaiting;
+
+        private ConnectionPermitPostProcessor(Duration timeout, int maxWaiting) {
+            this.timeout = timeout;
+            this.maxWaiting = maxWaiting;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConnectionPermitDataSource(hikari, hikari.getMaximumPoolSize(), timeout, maxWaiting);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.desafio2.demo2.config;
+
+import com.desafio2.demo2.limit.AdaptiveConcurrencyLimiter;
+import com.desafio2.demo2.limit.ClientIdentity;
+import com.desafio2.demo2.limit.ClientRateLimiter;
+import com.desafio2.demo2.limit.WriteLimitInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Rate and concurrency limits for the write endpoints under {@code /users}
+ * (POST, PUT, DELETE), configured with {@code users.limits.*}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "users.limits.enabled", matchIfMissing = true)
+public class WriteLimitConfig implements WebMvcConfigurer {
+
+    /**
+     * Long by design: they share the rate and the concurrency limit with every other write,
+     * but their duration would read as overload to the adaptive limit.
+     */
+    private static final String[] BULK_PATHS = {"/users/batch", "/users/import"};
+
+    private final WriteLimitInterceptor interceptor;
+    private final WriteLimitInterceptor bulkInterceptor;
+
+    public WriteLimitConfig(@Value("${users.limits.rate:20}") double rate,
+                            @Value("${users.limits.burst:40}") int burst,
+                            @Value("${users.limits.client-header:X-Client-Id}") String clientHeader,
+                            @Value("${users.limits.trusted-proxies:}") String[] trustedProxies,
+                            @Value("${users.limits.concurrency.min:1}") int minConcurrency,
+                            @Value("${users.limits.concurrency.max:8}") int maxConcurrency,
+                            @Value("${users.limits.concurrency.latency-threshold:250ms}") Duration latencyThreshold) {
+        ClientIdentity clients = new ClientIdentity(clientHeader, trustedProxies);
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(rate, burst);
+        AdaptiveConcurrencyLimiter concurrencyLimiter =
+                new AdaptiveConcurrencyLimiter(minConcurrency, maxConcurrency, latencyThreshold);
+        this.interceptor = new WriteLimitInterceptor(rateLimiter, concurrencyLimiter, clients, true);
+        this.bulkInterceptor = new WriteLimitInterceptor(rateLimiter, concurrencyLimiter, clients, false);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/users", "/users/**")
+                .excludePathPatterns(BULK_PATHS);
+        registry.addInterceptor(bulkInterceptor)
+                .addPathPatterns(BULK_PATHS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.desafio2.demo2.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Serves the OpenAPI document generated at build time ({@code mvn -Popenapi package}) when
+ * springdoc is switched off. The file is read once; every request writes the same bytes,
+ * with no controller scanning, model building or JSON serialization at runtime.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class OpenApiDocumentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenApiDocumentController.class);
+
+    private final byte[] document;
+    private final String eTag;
+
+    public OpenApiDocumentController(
+            @Value("${users.openapi.location:classpath:openapi/openapi.json}") Resource location) throws IOException {
+        if (location.exists()) {
+            this.document = location.getContentAsByteArray();
+            this.eTag = "\"" + DigestUtils.md5DigestAsHex(document) + "\"";
+            logger.debug("Serving pre-built OpenAPI document ({} bytes)", document.length);
+        } else {
+            this.document = null;
+            this.eTag = null;
+            logger.warn("No pre-built OpenAPI document at {}; build with -Popenapi to include it", location);
+        }
+    }
+
+    @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> document(WebRequest request) {
+        if (document == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)))
+                .body(document);
+    }
+}
@@ -0,0 +1,42 @@
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.dto.UserChangesResponseDTO;
+import com.desafio2.demo2.service.UserChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/users/changes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeController.class);
+    private final UserChangeFeed feed;
+
+    public UserChangeController(UserChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @Operation(summary = "Get user changes after the given position; poll again with the returned next")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserChangesResponseDTO> read(@RequestParam(defaultValue = "0") long since,
+                                                       @RequestParam(defaultValue = "100") int limit) {
+        logger.debug("GET /users/changes - since: {}, limit: {}", since, limit);
+        return ResponseEntity.ok(feed.read(since, limit));
+    }
+
+    @Operation(summary = "Stream user changes as server-sent events, resuming after Last-Event-ID or since")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(defaultValue = "0") long since,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : since;
+        logger.debug("GET /users/changes (SSE) - after: {}", from);
+        return feed.subscribe(from);
+    }
+}
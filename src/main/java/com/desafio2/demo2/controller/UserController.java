@@ -1,79 +1,340 @@
-package com.desafio2.demo2.controller;
-
-import com.desafio2.demo2.dto.UserRequestDTO;
-import com.desafio2.demo2.dto.UserResponseDTO;
-import com.desafio2.demo2.service.UserService;
-import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import jakarta.validation.Valid;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
-
-@RestController
-@RequestMapping("/users")
-public class UserController {
-
-    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
-    private final UserService service;
-
-    public UserController(UserService service) {
-        this.service = service;
-    }
-
-    @Operation(summary = "Create a new user")
-    @ApiResponse(responseCode = "201", description = "User created")
-    @PostMapping
-    public ResponseEntity<UserResponseDTO> create(@RequestBody @Valid UserRequestDTO dto) {
-        logger.info("POST /users - Creating user with email: {}", dto.getEmail());
-        UserResponseDTO created = service.create(dto);
-        logger.info("User created with id: {}", created.getId());
-        return ResponseEntity.status(201).body(created);
-    }
-
-    @Operation(summary = "Update user by ID")
-    @ApiResponse(responseCode = "200", description = "User updated successfully")
-    @ApiResponse(responseCode = "404", description = "User not found")
-    @PutMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> update(
-            @PathVariable Long id,
-            @RequestBody @Valid UserRequestDTO dto) {
-
-        logger.info("PUT /users/{} - Updating user", id);
-
-        UserResponseDTO updated = service.update(id, dto);
-
-        logger.info("User {} updated successfully", id);
-
-        return ResponseEntity.ok(updated);
-    }
-
-    @Operation(summary = "Get user by ID")
-    @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> findById(@PathVariable Long id) {
-        logger.info("GET /users/{} - Finding user", id);
-        UserResponseDTO user = service.findById(id);
-        return ResponseEntity.ok(user);
-    }
-
-    @Operation(summary = "Get all users")
-    @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> findAll() {
-        logger.info("GET /users - Fetching all users");
-        List<UserResponseDTO> users = service.findAll();
-        logger.info("Returned {} users", users.size());
-        return ResponseEntity.ok(users);
-    }
-
-    @Operation(summary = "Delete user by ID")
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        logger.info("DELETE /users/{} - Deleting user", id);
-        service.delete(id);
-        logger.info("User {} deleted successfully", id);
-        return ResponseEntity.noContent().build();
-    }
-}
\ No newline at end of file
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.BatchTooLargeException;
+import com.desafio2.demo2.exception.PreconditionRequiredException;
+import com.desafio2.demo2.repository.UpsertedUser;
+import com.desafio2.demo2.repository.UsersVersion;
+import com.desafio2.demo2.service.Csv;
+import com.desafio2.demo2.service.UserBatchService;
+import com.desafio2.demo2.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private final UserService service;
+    private final UserBatchService batchService;
+    private final ObjectMapper objectMapper;
+    private final boolean requireIfMatch;
+    private final int maxLookupIds;
+
+    public UserController(UserService service,
+                          UserBatchService batchService,
+                          ObjectMapper objectMapper,
+                          @Value("${users.require-if-match:false}") boolean requireIfMatch,
+                          @Value("${users.lookup.max-ids:100}") int maxLookupIds) {
+        this.service = service;
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
+        this.requireIfMatch = requireIfMatch;
+        this.maxLookupIds = maxLookupIds;
+    }
+
+    @Operation(summary = "Create a new user")
+    @ApiResponse(responseCode = "201", description = "User created")
+    @ApiResponse(responseCode = "409", description = "Email already exists")
+    @PostMapping
+    public ResponseEntity<UserResponseDTO> create(@RequestBody @Valid UserRequestDTO dto) {
+        logger.debug("POST /users - Creating user with email: {}", dto.getEmail());
+        UserResponseDTO created = service.create(dto);
+        return ResponseEntity.status(201).body(created);
+    }
+
+    @Operation(summary = "Create a user, or update the name of the user with this email")
+    @ApiResponse(responseCode = "201", description = "User created")
+    @ApiResponse(responseCode = "200", description = "Existing user updated")
+    @PostMapping(params = "upsert=true")
+    public ResponseEntity<UserResponseDTO> upsert(@RequestBody @Valid UserRequestDTO dto) {
+        logger.debug("POST /users?upsert=true - Upserting user with email: {}", dto.getEmail());
+        UpsertedUser result = service.upsert(dto);
+        UserResponseDTO body = new UserResponseDTO(result.getId(), result.getName(), result.getEmail(),
+                result.getUpdatedAt(), result.getVersion());
+        return withValidators(ResponseEntity.status(result.getInserted() ? 201 : 200), body).body(body);
+    }
+
+    @Operation(summary = "Create many users from a JSON array")
+    @ApiResponse(responseCode = "200", description = "Per-item results")
+    @ApiResponse(responseCode = "413", description = "Too many items")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchCreateResponseDTO> createBatch(@RequestBody List<UserRequestDTO> dtos) {
+        logger.debug("POST /users/batch - Creating {} users", dtos.size());
+        return ResponseEntity.ok(batchService.createAll(dtos));
+    }
+
+    @Operation(summary = "Create many users from newline-delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Per-item results")
+    @ApiResponse(responseCode = "413", description = "Too many items")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchCreateResponseDTO> createBatchNdjson(InputStream body) throws IOException {
+        int maxItems = batchService.getMaxItems();
+        List<UserRequestDTO> dtos = new ArrayList<>();
+
+        // Parse line by line and stop as soon as the limit is crossed, before anything is inserted
+        try (MappingIterator<UserRequestDTO> lines = objectMapper.readerFor(UserRequestDTO.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (dtos.size() == maxItems) {
+                    throw new BatchTooLargeException(maxItems);
+                }
+                dtos.add(lines.nextValue());
+            }
+        }
+
+        logger.debug("POST /users/batch (ndjson) - Creating {} users", dtos.size());
+        return ResponseEntity.ok(batchService.createAll(dtos));
+    }
+
+    @Operation(summary = "Update user by ID")
+    @ApiResponse(responseCode = "200", description = "User updated successfully")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @ApiResponse(responseCode = "409", description = "If-Match does not match the current version")
+    @ApiResponse(responseCode = "428", description = "If-Match is required but missing")
+    @PutMapping("/{id}")
+    public ResponseEntity<UserResponseDTO> update(
+            @PathVariable Long id,
+            @RequestBody @Valid UserRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        logger.debug("PUT /users/{} - Updating user (If-Match: {})", id, ifMatch);
+
+        UserResponseDTO updated;
+        if (ifMatch == null || ifMatch.isBlank()) {
+            if (requireIfMatch) {
+                throw new PreconditionRequiredException(
+                        "Updating user " + id + " requires an If-Match header with its ETag");
+            }
+            updated = service.update(id, dto);
+        } else if ("*".equals(ifMatch.trim())) {
+            updated = service.update(id, dto);
+        } else {
+            updated = service.update(id, dto, expectedVersion(id, ifMatch));
+        }
+
+        return withValidators(ResponseEntity.ok(), updated).body(updated);
+    }
+
+    @Operation(summary = "Get user by ID")
+    @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match")
+    @GetMapping("/{id}")
+    public ResponseEntity<UserResponseDTO> findById(@PathVariable Long id) {
+        logger.debug("GET /users/{} - Finding user", id);
+        UserResponseDTO user = service.findById(id);
+
+        // On a matching If-None-Match Spring answers 304 and never serializes the body
+        return withValidators(ResponseEntity.ok(), user).body(user);
+    }
+
+    @Operation(summary = "Get all users (JSON, or CBOR with Accept: application/cbor)")
+    @ApiResponse(responseCode = "304", description = "Collection not modified since the ETag in If-None-Match")
+    @GetMapping
+    public ResponseEntity<List<UserResponseDTO>> findAll(WebRequest request) {
+        // Validate against the latest published change before reading any rows
+        UsersVersion version = service.findVersion();
+        LocalDateTime lastModified = version.getLastModified();
+        long lastModifiedMillis = lastModified == null ? -1 : toInstant(lastModified).toEpochMilli();
+        String eTag = eTag("users-" + version.getPosition());
+
+        if (request.checkNotModified(eTag, lastModifiedMillis)) {
+            logger.debug("GET /users - Not modified");
+            return null;
+        }
+
+        logger.debug("GET /users - Fetching all users");
+        List<UserResponseDTO> users = service.findAll();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(users);
+    }
+
+    @Operation(summary = "Get many users by id (ids=1,2,3) in one query, in the requested order")
+    @ApiResponse(responseCode = "200", description = "Found users and the ids that matched no user")
+    @ApiResponse(responseCode = "400", description = "More ids than users.lookup.max-ids")
+    @GetMapping(params = {"ids", "!email", "!limit"})
+    public ResponseEntity<UserLookupResponseDTO> findByIds(@RequestParam List<Long> ids) {
+        logger.debug("GET /users?ids= - Finding {} users", ids.size());
+        if (ids.size() > maxLookupIds) {
+            throw new BadRequestException("At most " + maxLookupIds + " ids can be looked up at once");
+        }
+        return ResponseEntity.ok(service.findByIds(ids));
+    }
+
+    @Operation(summary = "Get user by exact email")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @GetMapping(params = "email")
+    public ResponseEntity<UserResponseDTO> findByEmail(@RequestParam String email) {
+        logger.debug("GET /users?email={} - Finding user", email);
+        return ResponseEntity.ok(service.findByEmail(email));
+    }
+
+    @Operation(summary = "Search users by name or email (match=prefix or contains)")
+    @GetMapping("/search")
+    public ResponseEntity<List<UserResponseDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("GET /users/search?q={}&match={} - Searching users", q, match);
+        return ResponseEntity.ok(service.search(q, match, limit));
+    }
+
+    @Operation(summary = "Get a page of users after the given id (keyset pagination)")
+    @GetMapping(params = {"limit", "!email"})
+    public ResponseEntity<UserPageResponseDTO> findPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        logger.debug("GET /users?after={}&limit={} - Fetching page", after, limit);
+        return ResponseEntity.ok(service.findPage(after, limit));
+    }
+
+    @Operation(summary = "Stream all users as newline-delimited JSON")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        logger.debug("GET /users/stream - Streaming all users");
+
+        // Let the generator buffer rows instead of flushing the response after every user
+        ObjectWriter writer = objectMapper.writerFor(UserResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // One document per line; the newline is written explicitly after each row
+                generator.setRootValueSeparator(null);
+                service.streamAll(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Stream all users as CSV (id,name,email), the format POST /users/import reads")
+    @GetMapping(value = "/stream", params = "format=csv")
+    public ResponseEntity<StreamingResponseBody> streamCsv() {
+        logger.debug("GET /users/stream?format=csv - Streaming all users");
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,name,email\n");
+            StringBuilder line = new StringBuilder(128);
+            service.streamAll(user -> {
+                line.setLength(0);
+                line.append(user.getId()).append(',');
+                Csv.appendField(line, user.getName());
+                line.append(',');
+                Csv.appendField(line, user.getEmail());
+                line.append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    @Operation(summary = "Delete user by ID")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        logger.debug("DELETE /users/{} - Deleting user", id);
+        service.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * ETag {@code W/"<id>-<version>"} and Last-Modified for a single user, when known.
+     */
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder,
+                                                             UserResponseDTO user) {
+        if (user.getVersion() != null) {
+            // JSON and CBOR share the weak validator, so caches must key on Accept too
+            builder.eTag(eTag(user.getId() + "-" + user.getVersion())).varyBy(HttpHeaders.ACCEPT);
+        }
+        if (user.getUpdatedAt() != null) {
+            builder.lastModified(toInstant(user.getUpdatedAt()));
+        }
+        return builder;
+    }
+
+    /**
+     * Version named by an If-Match ETag of the form {@code W/"<id>-<version>"} or
+     * {@code "<id>-<version>"}. The version alone decides the match: it names the user's
+     * state, whichever encoding carried it. Any other value (another user's tag, a
+     * malformed one) can never match, so it is a conflict.
+     */
+    private static long expectedVersion(Long id, String ifMatch) {
+        String tag = ifMatch.trim();
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        String prefix = "\"" + id + "-";
+        if (opaque.startsWith(prefix) && opaque.endsWith("\"") && opaque.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(opaque.substring(prefix.length(), opaque.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the conflict below
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "If-Match " + tag + " does not match the current version of user " + id);
+    }
+
+    /**
+     * Weak validator: JSON and CBOR, gzip or not, all share it. Tomcat only compresses
+     * responses whose ETag is weak, since a strong one would have to change with the encoding.
+     */
+    private static String eTag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    private static Instant toInstant(LocalDateTime utc) {
+        return utc.toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,102 @@
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.dto.ImportErrorDTO;
+import com.desafio2.demo2.dto.ImportProgressDTO;
+import com.desafio2.demo2.service.UserImportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/users/import")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportController.class);
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final UserImportService importService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public UserImportController(UserImportService importService, ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Reads the upload and writes the response at the same time, on the request thread: one
+     * NDJSON line per rejected record ({@code line}, {@code error}) and one per loaded chunk
+     * ({@code processed}, {@code imported}, {@code failed}), ending with {@code "done": true}.
+     */
+    @Operation(summary = "Import users from NDJSON or CSV (header: name,email), streaming progress and per-line errors")
+    @ApiResponse(responseCode = "200", description = "NDJSON stream of errors and progress")
+    @ApiResponse(responseCode = "400", description = "CSV header without name and email columns")
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            InputStream body,
+                            HttpServletResponse response) throws IOException {
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        logger.debug("POST /users/import - Importing {}", format);
+
+        BufferedReader source = new BufferedReader(new InputStreamReader(body, charset));
+
+        // Neither the content type nor the body is touched until the first line: a bad CSV
+        // header must still be able to become a JSON 400
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setRootValueSeparator(null);
+
+        importService.importUsers(source, format, new UserImportService.Listener() {
+            @Override
+            public void onError(ImportErrorDTO error) {
+                write(response, generator, error, false);
+            }
+
+            @Override
+            public void onProgress(ImportProgressDTO progress) {
+                // Errors are buffered with the generator; each chunk pushes them out with its progress
+                write(response, generator, progress, true);
+            }
+        });
+        generator.flush();
+    }
+
+    private void write(HttpServletResponse response, JsonGenerator generator, Object line, boolean flush) {
+        if (response.getContentType() == null) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        }
+        try {
+            writer.writeValue(generator, line);
+            generator.writeRaw('\n');
+            if (flush) {
+                generator.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.desafio2.demo2.dto;
+
+import java.util.List;
+
+public class BatchCreateResponseDTO {
+
+    private int created;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+
+    public BatchCreateResponseDTO(List<BatchItemResultDTO> results) {
+        this.results = results;
+        this.created = (int) results.stream()
+                .filter(result -> result.getStatus() == BatchItemResultDTO.Status.CREATED)
+                .count();
+        this.failed = results.size() - created;
+    }
+
+    public BatchCreateResponseDTO() {
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+}
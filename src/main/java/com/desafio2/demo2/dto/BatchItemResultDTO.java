@@ -0,0 +1,52 @@
+package com.desafio2.demo2.dto;
+
+public class BatchItemResultDTO {
+
+    public enum Status { CREATED, INVALID, FAILED }
+
+    private int index;
+    private Status status;
+    private UserResponseDTO user;
+    private String error;
+
+    public BatchItemResultDTO(int index, Status status, UserResponseDTO user, String error) {
+        this.index = index;
+        this.status = status;
+        this.user = user;
+        this.error = error;
+    }
+
+    public BatchItemResultDTO() {
+    }
+
+    public static BatchItemResultDTO created(int index, UserResponseDTO user) {
+        return new BatchItemResultDTO(index, Status.CREATED, user, null);
+    }
+
+    public static BatchItemResultDTO invalid(int index, String error) {
+        return new BatchItemResultDTO(index, Status.INVALID, null, error);
+    }
+
+    public static BatchItemResultDTO failed(int index, String error) {
+        return new BatchItemResultDTO(index, Status.FAILED, null, error);
+    }
+
+    /**
+     * Zero-based position of the item in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public UserResponseDTO getUser() {
+        return user;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
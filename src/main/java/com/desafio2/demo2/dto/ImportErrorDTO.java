@@ -0,0 +1,26 @@
+package com.desafio2.demo2.dto;
+
+public class ImportErrorDTO {
+
+    private long line;
+    private String error;
+
+    public ImportErrorDTO(long line, String error) {
+        this.line = line;
+        this.error = error;
+    }
+
+    public ImportErrorDTO() {
+    }
+
+    /**
+     * One-based line number in the uploaded file; for CSV the header is line 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
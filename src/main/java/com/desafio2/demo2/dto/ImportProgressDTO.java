@@ -0,0 +1,41 @@
+package com.desafio2.demo2.dto;
+
+public class ImportProgressDTO {
+
+    private long processed;
+    private long imported;
+    private long failed;
+    private boolean done;
+
+    public ImportProgressDTO(long processed, long imported, long failed, boolean done) {
+        this.processed = processed;
+        this.imported = imported;
+        this.failed = failed;
+        this.done = done;
+    }
+
+    public ImportProgressDTO() {
+    }
+
+    /**
+     * Records read so far, valid or not; blank lines and the CSV header are not counted.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * {@code true} only on the last line of the response, once the whole file is loaded.
+     */
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,28 @@
+package com.desafio2.demo2.dto;
+
+import java.util.List;
+
+public class UserChangesResponseDTO {
+
+    private List<UserEventDTO> events;
+    private long next;
+
+    public UserChangesResponseDTO(List<UserEventDTO> events, long next) {
+        this.events = events;
+        this.next = next;
+    }
+
+    public UserChangesResponseDTO() {
+    }
+
+    public List<UserEventDTO> getEvents() {
+        return events;
+    }
+
+    /**
+     * Value to pass as {@code since} on the next poll; unchanged when there were no new events.
+     */
+    public long getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,72 @@
+package com.desafio2.demo2.dto;
+
+import com.desafio2.demo2.model.UserEvent;
+
+import java.time.LocalDateTime;
+
+public class UserEventDTO {
+
+    private long position;
+    private UserEvent.Type type;
+    private Long userId;
+    private String name;
+    private String email;
+    private Long version;
+    private LocalDateTime occurredAt;
+
+    public UserEventDTO(long position, UserEvent.Type type, Long userId, String name, String email,
+                        Long version, LocalDateTime occurredAt) {
+        this.position = position;
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+        this.occurredAt = occurredAt;
+    }
+
+    public UserEventDTO() {
+    }
+
+    /**
+     * The event as published at {@code position}.
+     */
+    public static UserEventDTO from(UserEvent event, long position) {
+        return new UserEventDTO(position, event.getType(), event.getUserId(), event.getName(),
+                event.getEmail(), event.getVersion(), event.getOccurredAt());
+    }
+
+    /**
+     * Offset of this event in the feed; pass it as {@code since} to resume after it.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public UserEvent.Type getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * User state after the change; {@code null} for {@code DELETED}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
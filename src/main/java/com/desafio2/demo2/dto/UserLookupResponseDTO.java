@@ -0,0 +1,69 @@
+package com.desafio2.demo2.dto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserLookupResponseDTO {
+
+    private List<UserResponseDTO> users;
+    private List<Long> missing;
+    private Map<Long, Long> versions;
+
+    public UserLookupResponseDTO(List<UserResponseDTO> users, List<Long> missing) {
+        this.users = users;
+        this.missing = missing;
+        this.versions = new LinkedHashMap<>();
+        users.forEach(user -> {
+            if (user.getVersion() != null) {
+                versions.put(user.getId(), user.getVersion());
+            }
+        });
+    }
+
+    public UserLookupResponseDTO() {
+    }
+
+    /**
+     * Puts {@code found}, which may come back from the database in any order, in the order
+     * of the requested {@code ids}, and lists the ids that matched no user.
+     */
+    public static UserLookupResponseDTO inRequestOrder(Collection<Long> ids, Collection<UserResponseDTO> found) {
+        Map<Long, UserResponseDTO> byId = new HashMap<>();
+        found.forEach(user -> byId.put(user.getId(), user));
+
+        List<UserResponseDTO> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            UserResponseDTO user = byId.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResponseDTO(users, missing);
+    }
+
+    /**
+     * Found users, in the order their ids were requested; a repeated id appears once.
+     */
+    public List<UserResponseDTO> getUsers() {
+        return users;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    /**
+     * Current version of each found user, by id. {@code "<id>-<version>"} is the ETag that
+     * {@code GET /users/{id}} would send, so it can go straight into If-Match on update.
+     */
+    public Map<Long, Long> getVersions() {
+        return versions;
+    }
+}
@@ -0,0 +1,28 @@
+package com.desafio2.demo2.dto;
+
+import java.util.List;
+
+public class UserPageResponseDTO {
+
+    private List<UserResponseDTO> items;
+    private Long nextCursor;
+
+    public UserPageResponseDTO(List<UserResponseDTO> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public UserPageResponseDTO() {
+    }
+
+    public List<UserResponseDTO> getItems() {
+        return items;
+    }
+
+    /**
+     * Value to pass as {@code after} to fetch the next page, or {@code null} on the last page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -1,39 +1,39 @@
-package com.desafio2.demo2.dto;
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotBlank;
-
-
-public class UserRequestDTO {
-    
-    @NotBlank(message = "Name is required")
-    private String name;
-    
-    @Email(message = "Email must be valid")
-    @NotBlank(message = "Email is required")
-    private String email;
-
-    public UserRequestDTO() {
-    }
-
-    public UserRequestDTO(String name, String email) {
-        this.name = name;
-        this.email = email;
-    }
-
-
-    public String getName() {
-        return name;
-    }
-
-    public String getEmail() {
-        return email;
-    }
-
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    public void setEmail(String email) {
-        this.email = email;
-    }
-}
+package com.desafio2.demo2.dto;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+
+public class UserRequestDTO {
+    
+    @NotBlank(message = "Name is required")
+    private String name;
+    
+    @Email(message = "Email must be valid")
+    @NotBlank(message = "Email is required")
+    private String email;
+
+    public UserRequestDTO() {
+    }
+
+    public UserRequestDTO(String name, String email) {
+        this.name = name;
+        this.email = email;
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+}
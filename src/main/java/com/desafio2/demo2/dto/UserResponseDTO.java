@@ -1,29 +1,63 @@
-package com.desafio2.demo2.dto;
-
-public class UserResponseDTO {
-
-    private Long id;
-    private String name;
-    private String email;
-
-    public UserResponseDTO(Long id, String name, String email) {
-        this.id = id;
-        this.name = name;
-        this.email = email;
-    }
-
-    public UserResponseDTO() {
-    }
-
-    public Long getId() {
-        return id;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public String getEmail() {
-        return email;
-    }
-}
+package com.desafio2.demo2.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+public class UserResponseDTO {
+
+    private Long id;
+    private String name;
+    private String email;
+    private LocalDateTime updatedAt;
+    private Long version;
+
+    public UserResponseDTO(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
+
+    public UserResponseDTO(Long id, String name, String email, LocalDateTime updatedAt) {
+        this(id, name, email);
+        this.updatedAt = updatedAt;
+    }
+
+    public UserResponseDTO(Long id, String name, String email, LocalDateTime updatedAt, Long version) {
+        this(id, name, email, updatedAt);
+        this.version = version;
+    }
+
+    public UserResponseDTO() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Last write time (UTC), sent as ETag/Last-Modified headers rather than in the body.
+     * {@code null} when the query that produced this DTO did not select it.
+     */
+    @JsonIgnore
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Optimistic-lock version, sent as the ETag and checked against If-Match on update.
+     * {@code null} when the query that produced this DTO did not select it.
+     */
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,8 @@
+package com.desafio2.demo2.exception;
+
+public class BadRequestException extends ExpectedException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.desafio2.demo2.exception;
+
+public class BatchTooLargeException extends ExpectedException {
+
+    public BatchTooLargeException(int maxItems) {
+        super("Batch exceeds the maximum of " + maxItems + " items");
+    }
+}
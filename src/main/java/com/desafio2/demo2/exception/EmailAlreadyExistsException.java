@@ -0,0 +1,8 @@
+package com.desafio2.demo2.exception;
+
+public class EmailAlreadyExistsException extends ExpectedException {
+
+    public EmailAlreadyExistsException(String email) {
+        super("Email already exists: " + email);
+    }
+}
@@ -0,0 +1,50 @@
+package com.desafio2.demo2.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for the expected error responses produced by {@link GlobalExceptionHandler}.
+ */
+@Component
+public class ErrorMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter userNotFound;
+    private final Counter conflicts;
+
+    public ErrorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.userNotFound = Counter.builder("users.not.found")
+                .description("Requests answered with 404 because the user does not exist")
+                .register(registry);
+        this.conflicts = Counter.builder("users.conflicts")
+                .description("Requests answered with 409 because of a unique constraint")
+                .register(registry);
+    }
+
+    public void userNotFound() {
+        userNotFound.increment();
+    }
+
+    public void conflict() {
+        conflicts.increment();
+    }
+
+    public void requestRejected(String reason) {
+        Counter.builder("users.requests.rejected")
+                .description("Write requests shed by the rate (429) or concurrency (503) limit")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void validationFailed(String field) {
+        Counter.builder("users.validation.failures")
+                .description("Rejected request fields, by field name")
+                .tag("field", field)
+                .register(registry)
+                .increment();
+    }
+}
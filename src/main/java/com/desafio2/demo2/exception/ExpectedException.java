@@ -0,0 +1,21 @@
+package com.desafio2.demo2.exception;
+
+/**
+ * Base for exceptions that describe an expected outcome answered with a 4xx/503
+ * (unknown id, duplicate email, bad input, shed load) rather than a bug. They are thrown
+ * on hot paths such as scrapers probing random ids, so they skip the stack trace and
+ * suppression list: creating one costs an allocation instead of a walk of every frame.
+ */
+public abstract class ExpectedException extends RuntimeException {
+
+    protected ExpectedException(String message) {
+        super(message, null, false, false);
+    }
+
+    /**
+     * For subclasses that build their message in {@link #getMessage()}, only when it is read.
+     */
+    protected ExpectedException() {
+        super(null, null, false, false);
+    }
+}
@@ -0,0 +1,35 @@
+package com.desafio2.demo2.exception;
+
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+
+/**
+ * Turns bean-validation field errors into the {@code ApiError} message, shared by the
+ * servlet and reactive handlers.
+ */
+public final class FieldErrors {
+
+    private FieldErrors() {
+    }
+
+    /**
+     * Counts every rejected field and joins all of them into one message
+     * ({@code "email: must be valid; name: must not be blank"}), in a single pass.
+     */
+    public static String describe(List<FieldError> errors, ErrorMetrics errorMetrics) {
+        if (errors.isEmpty()) {
+            return "Validation error";
+        }
+
+        StringBuilder message = new StringBuilder(errors.size() * 32);
+        for (FieldError error : errors) {
+            errorMetrics.validationFailed(error.getField());
+            if (!message.isEmpty()) {
+                message.append("; ");
+            }
+            message.append(error.getField()).append(": ").append(error.getDefaultMessage());
+        }
+        return message.toString();
+    }
+}
@@ -1,42 +1,128 @@
-package com.desafio2.demo2.exception;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
-import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.RestControllerAdvice;
-
-import com.desafio2.demo2.exception.dto.ApiError;
-
-import jakarta.servlet.http.HttpServletRequest;
-
-@RestControllerAdvice
-public class GlobalExceptionHandler {
-
-    @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ApiError> handleUserNotFound(
-            UserNotFoundException ex,
-            HttpServletRequest request) {
-
-        ApiError body = new ApiError(HttpStatus.NOT_FOUND.value(),
-                ex.getMessage(), request.getRequestURI());
-        
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(body);
-    }
-
-        @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ApiError> handleValidation(MethodArgumentNotValidException ex,
-                                                     HttpServletRequest request) {
-        String message = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(err -> err.getField() + ": " + err.getDefaultMessage())
-                .findFirst()
-                .orElse("Validation error");
-        ApiError body = new ApiError(HttpStatus.BAD_REQUEST.value(),
-                message, request.getRequestURI());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
-    }
-}
+package com.desafio2.demo2.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.desafio2.demo2.exception.dto.ApiError;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class GlobalExceptionHandler {
+
+    private final ErrorMetrics errorMetrics;
+
+    public GlobalExceptionHandler(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ApiError> handleUserNotFound(
+            UserNotFoundException ex,
+            HttpServletRequest request) {
+
+        errorMetrics.userNotFound();
+        return error(HttpStatus.NOT_FOUND, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiError> handleValidation(MethodArgumentNotValidException ex,
+                                                     HttpServletRequest request) {
+        String message = FieldErrors.describe(ex.getBindingResult().getFieldErrors(), errorMetrics);
+        return error(HttpStatus.BAD_REQUEST, message, request);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequest(BadRequestException ex,
+                                                     HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(EmailAlreadyExistsException.class)
+    public ResponseEntity<ApiError> handleEmailAlreadyExists(EmailAlreadyExistsException ex,
+                                                             HttpServletRequest request) {
+        errorMetrics.conflict();
+        return error(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    // Safety net for constraint violations that reach the controller untranslated
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> handleDataIntegrityViolation(DataIntegrityViolationException ex,
+                                                                 HttpServletRequest request) {
+        errorMetrics.conflict();
+        return error(HttpStatus.CONFLICT, "Request conflicts with existing data", request);
+    }
+
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<ApiError> handleOptimisticLock(RuntimeException ex,
+                                                         HttpServletRequest request) {
+        errorMetrics.conflict();
+        String message = ex instanceof OptimisticLockingFailureException && ex.getMessage() != null
+                ? ex.getMessage()
+                : "User was modified by another request; reload it and retry";
+        return error(HttpStatus.CONFLICT, message, request);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<ApiError> handlePreconditionRequired(PreconditionRequiredException ex,
+                                                               HttpServletRequest request) {
+        return error(HttpStatus.PRECONDITION_REQUIRED, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<ApiError> handleBatchTooLarge(BatchTooLargeException ex,
+                                                        HttpServletRequest request) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex,
+                                                          HttpServletRequest request) {
+        errorMetrics.requestRejected("rate");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiError(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex,
+                                                            HttpServletRequest request) {
+        errorMetrics.requestRejected("concurrency");
+        return retryLater(ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<ApiError> handleMalformedJson(JsonProcessingException ex,
+                                                        HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "Malformed JSON: " + ex.getOriginalMessage(), request);
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiError> handleDatabaseUnavailable(RuntimeException ex,
+                                                              HttpServletRequest request) {
+        return retryLater("Database is busy, please retry", request);
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String message, HttpServletRequest request) {
+        return ResponseEntity.status(status)
+                .body(new ApiError(status.value(), message, request.getRequestURI()));
+    }
+
+    private static ResponseEntity<ApiError> retryLater(String message, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), message, request.getRequestURI()));
+    }
+}
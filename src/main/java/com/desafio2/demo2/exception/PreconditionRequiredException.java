@@ -0,0 +1,8 @@
+package com.desafio2.demo2.exception;
+
+public class PreconditionRequiredException extends ExpectedException {
+
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
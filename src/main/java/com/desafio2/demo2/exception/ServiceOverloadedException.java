@@ -0,0 +1,8 @@
+package com.desafio2.demo2.exception;
+
+public class ServiceOverloadedException extends ExpectedException {
+
+    public ServiceOverloadedException() {
+        super("Too many writes in progress, please retry");
+    }
+}
@@ -0,0 +1,15 @@
+package com.desafio2.demo2.exception;
+
+public class TooManyRequestsException extends ExpectedException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(long retryAfterSeconds) {
+        super("Too many requests from this client; retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
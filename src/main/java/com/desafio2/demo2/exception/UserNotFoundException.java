@@ -1,8 +1,23 @@
-package com.desafio2.demo2.exception;
-
-public class UserNotFoundException extends RuntimeException {
-
-    public UserNotFoundException(Long id) {
-        super("User not found with id: " + id);
-    }
-}
+package com.desafio2.demo2.exception;
+
+public class UserNotFoundException extends ExpectedException {
+
+    private final String key;
+    private final Object value;
+
+    public UserNotFoundException(Long id) {
+        this.key = "id";
+        this.value = id;
+    }
+
+    public UserNotFoundException(String email) {
+        this.key = "email";
+        this.value = email;
+    }
+
+    // Built on demand: the 404 handler reads it once, the service fast path never does
+    @Override
+    public String getMessage() {
+        return "User not found with " + key + ": " + value;
+    }
+}
@@ -1,22 +1,23 @@
-package com.desafio2.demo2.exception.dto;
-
-
-import java.time.Instant;
-
-public class ApiError {
-    private final Instant timestamp = Instant.now();
-    private final int status;
-    private final String error;
-    private final String path;
-
-    public ApiError(int status, String error, String path) {
-        this.status = status;
-        this.error = error;
-        this.path = path;
-    }
-
-    public Instant getTimestamp() { return timestamp; }
-    public int getStatus() { return status; }
-    public String getError() { return error; }
-    public String getPath() { return path; }
+package com.desafio2.demo2.exception.dto;
+
+
+import java.time.Instant;
+
+public class ApiError {
+    // Millisecond wall clock; the Instant is only created when the body is serialized
+    private final long timestamp = System.currentTimeMillis();
+    private final int status;
+    private final String error;
+    private final String path;
+
+    public ApiError(int status, String error, String path) {
+        this.status = status;
+        this.error = error;
+        this.path = path;
+    }
+
+    public Instant getTimestamp() { return Instant.ofEpochMilli(timestamp); }
+    public int getStatus() { return status; }
+    public String getError() { return error; }
+    public String getPath() { return path; }
 }
\ No newline at end of file
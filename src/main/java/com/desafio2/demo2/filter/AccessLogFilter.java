@@ -0,0 +1,131 @@
+package com.desafio2.demo2.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes one access-log line per request to the {@code access} logger, in
+ * {@code key=value} form. Server errors, slow requests and async responses that time
+ * out or fail are always logged; other requests are sampled with
+ * {@code users.access-log.sample-rate}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${users.access-log.sample-rate:1.0}") double sampleRate,
+                           @Value("${users.access-log.slow-threshold:500ms}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!accessLog.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses finish on another thread; log when they end
+                request.getAsyncContext().addListener(new AsyncLogListener(request, response, start));
+            } else {
+                log(request, response, start, null);
+            }
+        }
+    }
+
+    /**
+     * @param failure {@code timeout} or {@code error} when an async response did not complete
+     *                normally; such lines are always written
+     */
+    private void log(HttpServletRequest request, HttpServletResponse response, long start, String failure) {
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+
+        boolean always = failure != null || status >= 500 || elapsed >= slowThresholdNanos;
+        if (!always && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        if (failure == null) {
+            accessLog.info("method={} uri={} status={} durationMs={} client={}",
+                    request.getMethod(), request.getRequestURI(), status,
+                    elapsed / 1_000_000, request.getRemoteAddr());
+        } else {
+            accessLog.info("method={} uri={} status={} durationMs={} client={} async={}",
+                    request.getMethod(), request.getRequestURI(), status,
+                    elapsed / 1_000_000, request.getRemoteAddr(), failure);
+        }
+    }
+
+    /**
+     * Logs an async response once: when it times out or fails, or else when it completes.
+     * The container still calls {@code onComplete} after a timeout or an error.
+     */
+    private final class AsyncLogListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+        private final AtomicBoolean logged = new AtomicBoolean();
+
+        AsyncLogListener(HttpServletRequest request, HttpServletResponse response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            logOnce(null);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            logOnce("timeout");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            Throwable error = event.getThrowable();
+            logOnce(error == null ? "error" : "error:" + error.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void logOnce(String failure) {
+            if (logged.compareAndSet(false, true)) {
+                log(request, response, start, failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.desafio2.demo2.filter;
+
+import com.desafio2.demo2.config.ReadWriteRoutingDataSource;
+import com.desafio2.demo2.limit.ClientIdentity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes for replica routing: once a client sends a write, its reads are served
+ * by the primary for {@code users.replicas.sticky-window}, long enough for the replicas to
+ * catch up. The write is recorded when the request arrives, so a read sent right after the
+ * response cannot miss it. Clients are identified like the write limits, by
+ * {@link ClientIdentity}.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final ClientIdentity clients;
+
+    public ReadYourWritesFilter(Duration stickyWindow, ClientIdentity clients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+        this.clients = clients;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String client = clients.of(request);
+
+        if (!isRead(request.getMethod())) {
+            recentWriters.put(client, Boolean.TRUE);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (recentWriters.getIfPresent(client) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ReadWriteRoutingDataSource.pinToPrimary(true);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.pinToPrimary(false);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.OPTIONS.matches(method);
+    }
+}
@@ -0,0 +1,99 @@
+package com.desafio2.demo2.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of requests in flight with a limit that adapts to latency (AIMD).
+ * A response slower than the threshold, or one that failed because the database was
+ * overloaded, cuts the limit by 10%, at most once per threshold window. A fast response
+ * while the limit is at least half used raises it by one, up to the configured maximum.
+ * <p>
+ * The maximum should leave room in the connection pool for reads, so writes are shed with
+ * 503 before requests start queueing for connections. Counters are atomics; nothing blocks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, Duration latencyThreshold) {
+        this(minLimit, maxLimit, latencyThreshold, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, Duration latencyThreshold, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.clock = clock;
+        this.limit = new AtomicInteger(maxLimit);
+        this.lastDecrease = new AtomicLong(clock.getAsLong() - latencyThresholdNanos);
+    }
+
+    /**
+     * @return true if the request may proceed; it must then call {@link #release} exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean overloaded) {
+        int wasInFlight = inFlight.getAndDecrement();
+
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (wasInFlight * 2 >= limit.get()) {
+            limit.getAndUpdate(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Releases a request whose duration says nothing about load, such as a bulk import
+     * that is slow because it is large. Only a database overload still cuts the limit.
+     */
+    public void releaseUnmeasured(boolean overloaded) {
+        inFlight.decrementAndGet();
+
+        if (overloaded) {
+            decrease();
+        }
+    }
+
+    private void decrease() {
+        long now = clock.getAsLong();
+        long last = lastDecrease.get();
+        // Many slow responses at once are one overload, not many: cut once per window
+        if (now - last < latencyThresholdNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        limit.getAndUpdate(current -> Math.max(minLimit, (int) (current * BACKOFF)));
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
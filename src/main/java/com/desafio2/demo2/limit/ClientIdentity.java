@@ -0,0 +1,32 @@
+package com.desafio2.demo2.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Tells clients apart for the per-client limits and read-your-writes. The key is the remote
+ * address. The client header is only honoured when the request comes straight from one of
+ * the trusted proxies ({@code users.limits.trusted-proxies}), which set it themselves; from
+ * anyone else it could be changed on every request to get a fresh bucket.
+ */
+public class ClientIdentity {
+
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+
+    public ClientIdentity(String clientHeader, String... trustedProxies) {
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(Arrays.asList(trustedProxies));
+    }
+
+    public String of(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : address;
+    }
+}
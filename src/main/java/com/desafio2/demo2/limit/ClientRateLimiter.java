@@ -0,0 +1,68 @@
+package com.desafio2.demo2.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token bucket, implemented as GCRA: each client has a single "theoretical
+ * arrival time" that moves forward by one emission interval per accepted request, and a
+ * request is rejected when that time would run more than {@code burst} intervals ahead of now.
+ * <p>
+ * State is one {@link AtomicLong} per client, updated with compare-and-set, so accepting a
+ * request takes no lock; clients only contend with their own concurrent requests. Idle
+ * clients expire from the Caffeine map.
+ */
+public class ClientRateLimiter {
+
+    private static final int MAX_CLIENTS = 100_000;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> clients;
+
+    public ClientRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.clock = clock;
+        // Once a client has been idle for a full burst its bucket is full again, so dropping it loses nothing
+        this.clients = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .maximumSize(MAX_CLIENTS)
+                .build();
+    }
+
+    /**
+     * Takes one permit for {@code client}.
+     *
+     * @return 0 when the request is allowed, otherwise the nanoseconds until a permit is available
+     */
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = clients.get(client, key -> new AtomicLong(now));
+
+        while (true) {
+            long current = arrival.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.desafio2.demo2.limit;
+
+import com.desafio2.demo2.exception.ServiceOverloadedException;
+import com.desafio2.demo2.exception.TooManyRequestsException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards the write endpoints: first the caller's rate (429), then the shared concurrency
+ * limit (503). Rejections are thrown as exceptions so {@code GlobalExceptionHandler} renders
+ * them as {@code ApiError}. Reads pass straight through. Bulk endpoints are registered with
+ * {@code measureLatency = false}: they count against the rate and hold a concurrency slot
+ * like any write, but their duration grows with their size, so it is not fed back to the
+ * adaptive limit.
+ */
+public class WriteLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = WriteLimitInterceptor.class.getName() + ".started";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ClientIdentity clients;
+    private final boolean measureLatency;
+
+    public WriteLimitInterceptor(ClientRateLimiter rateLimiter,
+                                 AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                 ClientIdentity clients,
+                                 boolean measureLatency) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clients = clients;
+        this.measureLatency = measureLatency;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isWrite(request.getMethod())) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clients.of(request));
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+
+        // Taken last: once preHandle returns true, afterCompletion is guaranteed to release it
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new ServiceOverloadedException();
+        }
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(STARTED) instanceof Long started)) {
+            return;
+        }
+        request.removeAttribute(STARTED);
+        boolean overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        if (measureLatency) {
+            concurrencyLimiter.release(System.nanoTime() - started, overloaded);
+        } else {
+            concurrencyLimiter.releaseUnmeasured(overloaded);
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method);
+    }
+}
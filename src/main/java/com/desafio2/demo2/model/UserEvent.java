@@ -0,0 +1,82 @@
+package com.desafio2.demo2.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row describing one change to a user. Written in the same transaction as the
+ * change; {@code position} stays {@code null} until the relay publishes the row with a
+ * guarded statement of its own, so the entity never writes it.
+ */
+@Entity
+@Table(name = "user_events")
+public class UserEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    // One id per nextval: ids cached in per-instance blocks would let a later change to a user
+    // get a lower id than an earlier one, and the relay publishes in id order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_events_id_seq")
+    @SequenceGenerator(name = "user_events_id_seq", sequenceName = "user_events_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Column(length = 100)
+    private String name;
+
+    @Column(length = 100)
+    private String email;
+
+    private Long version;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(unique = true, updatable = false)
+    private Long position;
+
+    @Column(name = "published_at", updatable = false)
+    private LocalDateTime publishedAt;
+
+    protected UserEvent() {}
+
+    private UserEvent(Type type, Long userId, String name, String email, Long version) {
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+        this.occurredAt = User.currentTimestamp();
+    }
+
+    public static UserEvent created(Long userId, String name, String email, Long version) {
+        return new UserEvent(Type.CREATED, userId, name, email, version);
+    }
+
+    public static UserEvent updated(Long userId, String name, String email, Long version) {
+        return new UserEvent(Type.UPDATED, userId, name, email, version);
+    }
+
+    public static UserEvent deleted(Long userId) {
+        return new UserEvent(Type.DELETED, userId, null, null, null);
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public Type getType() { return type; }
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+    public Long getVersion() { return version; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    public Long getPosition() { return position; }
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+}
@@ -0,0 +1,81 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.exception.FieldErrors;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.exception.dto.ApiError;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * WebFlux counterpart of {@link com.desafio2.demo2.exception.GlobalExceptionHandler}:
+ * same status codes, {@link ApiError} bodies and error counters.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private final ErrorMetrics errorMetrics;
+
+    public ReactiveExceptionHandler(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ApiError> handleUserNotFound(UserNotFoundException ex, ServerHttpRequest request) {
+        errorMetrics.userNotFound();
+        return error(HttpStatus.NOT_FOUND, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> handleValidation(WebExchangeBindException ex, ServerHttpRequest request) {
+        String message = FieldErrors.describe(ex.getFieldErrors(), errorMetrics);
+        return error(HttpStatus.BAD_REQUEST, message, request);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequest(BadRequestException ex, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiError> handleMalformedInput(ServerWebInputException ex, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, ex.getReason(), request);
+    }
+
+    @ExceptionHandler(EmailAlreadyExistsException.class)
+    public ResponseEntity<ApiError> handleEmailAlreadyExists(EmailAlreadyExistsException ex,
+                                                             ServerHttpRequest request) {
+        errorMetrics.conflict();
+        return error(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> handleDataIntegrityViolation(DataIntegrityViolationException ex,
+                                                                 ServerHttpRequest request) {
+        errorMetrics.conflict();
+        return error(HttpStatus.CONFLICT, "Request conflicts with existing data", request);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex,
+                                                         ServerHttpRequest request) {
+        errorMetrics.conflict();
+        return error(HttpStatus.CONFLICT, "User was modified by another request; reload it and retry", request);
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String message, ServerHttpRequest request) {
+        return ResponseEntity.status(status)
+                .body(new ApiError(status.value(), message, request.getPath().value()));
+    }
+}
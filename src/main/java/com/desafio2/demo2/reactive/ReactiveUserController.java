@@ -0,0 +1,120 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The {@code /users} contract of {@link com.desafio2.demo2.controller.UserController}
+ * on WebFlux. Only registered when the application runs as a reactive web application.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserController.class);
+    private final ReactiveUserService service;
+    private final int maxLookupIds;
+
+    public ReactiveUserController(ReactiveUserService service,
+                                  @Value("${users.lookup.max-ids:100}") int maxLookupIds) {
+        this.service = service;
+        this.maxLookupIds = maxLookupIds;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponseDTO>> create(@RequestBody @Valid UserRequestDTO dto) {
+        logger.debug("POST /users - Creating user with email: {}", dto.getEmail());
+        return service.create(dto).map(created -> ResponseEntity.status(201).body(created));
+    }
+
+    @PostMapping(params = "upsert=true")
+    public Mono<ResponseEntity<UserResponseDTO>> upsert(@RequestBody @Valid UserRequestDTO dto) {
+        logger.debug("POST /users?upsert=true - Upserting user with email: {}", dto.getEmail());
+        return service.upsert(dto).map(result -> ResponseEntity.status(result.getInserted() ? 201 : 200)
+                .body(new UserResponseDTO(result.getId(), result.getName(), result.getEmail())));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDTO>> update(
+            @PathVariable Long id,
+            @RequestBody @Valid UserRequestDTO dto) {
+        logger.debug("PUT /users/{} - Updating user", id);
+        return service.update(id, dto).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDTO>> findById(@PathVariable Long id) {
+        logger.debug("GET /users/{} - Finding user", id);
+        return service.findById(id).map(ResponseEntity::ok);
+    }
+
+    /**
+     * A JSON array by default. With {@code Accept: application/x-ndjson} each user is
+     * written as soon as it is read, and rows are only fetched as fast as the client reads.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponseDTO> findAll() {
+        logger.debug("GET /users - Fetching all users");
+        return service.findAll();
+    }
+
+    @GetMapping(params = {"ids", "!email", "!limit"})
+    public Mono<UserLookupResponseDTO> findByIds(@RequestParam List<Long> ids) {
+        logger.debug("GET /users?ids= - Finding {} users", ids.size());
+        if (ids.size() > maxLookupIds) {
+            return Mono.error(new BadRequestException("At most " + maxLookupIds + " ids can be looked up at once"));
+        }
+        return service.findByIds(ids);
+    }
+
+    @GetMapping(params = "email")
+    public Mono<ResponseEntity<UserResponseDTO>> findByEmail(@RequestParam String email) {
+        logger.debug("GET /users?email={} - Finding user", email);
+        return service.findByEmail(email).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Flux<UserResponseDTO> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("GET /users/search?q={}&match={} - Searching users", q, match);
+        return service.search(q, match, limit);
+    }
+
+    @GetMapping(params = {"limit", "!email"})
+    public Mono<UserPageResponseDTO> findPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        logger.debug("GET /users?after={}&limit={} - Fetching page", after, limit);
+        return service.findPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponseDTO> stream() {
+        logger.debug("GET /users/stream - Streaming all users");
+        return service.findAll();
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        logger.debug("DELETE /users/{} - Deleting user", id);
+        return service.delete(id).then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
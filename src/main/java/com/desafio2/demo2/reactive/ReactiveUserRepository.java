@@ -0,0 +1,88 @@
+package com.desafio2.demo2.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of {@link com.desafio2.demo2.repository.UserRepository},
+ * with the same single-statement queries written in PostgreSQL SQL.
+ */
+@Repository
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRow, Long> {
+
+    /**
+     * Every user ordered by id. Rows are emitted as the subscriber requests them.
+     */
+    Flux<UserRow> findAllByOrderById();
+
+    Mono<UserRow> findByEmail(String email);
+
+    /**
+     * Users with the given ids, in no particular order. The ids are bound as one array
+     * parameter, so the statement is the same whatever their number.
+     */
+    @Query("select id, name, email, version from users where id = any(:ids)")
+    Flux<UserRow> findByIds(@Param("ids") Long[] ids);
+
+    /**
+     * Keyset page: up to {@code limit} users with an id greater than {@code after}.
+     */
+    @Query("select id, name, email from users where id > :after order by id limit :limit")
+    Flux<UserRow> findPageAfter(@Param("after") long after, @Param("limit") int limit);
+
+    /**
+     * Case-insensitive prefix match on name or email; {@code pattern} is escaped by
+     * {@link com.desafio2.demo2.service.SearchQuery}.
+     */
+    @Query("select id, name, email from users "
+            + "where lower(name) like :pattern || '%' escape '!' "
+            + "or lower(email) like :pattern || '%' escape '!' "
+            + "order by id limit :limit")
+    Flux<UserRow> searchByPrefix(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @Query("select id, name, email from users "
+            + "where lower(name) like '%' || :pattern || '%' escape '!' "
+            + "or lower(email) like '%' || :pattern || '%' escape '!' "
+            + "order by id limit :limit")
+    Flux<UserRow> searchByContains(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @Query("insert into users (name, email, updated_at) values (:name, :email, :updatedAt) "
+            + "on conflict (email) do update set name = excluded.name, updated_at = excluded.updated_at, "
+            + "version = users.version + 1 "
+            + "returning id, name, email, updated_at, version, (xmax = 0) as inserted")
+    Mono<UpsertedRow> upsertByEmail(@Param("name") String name, @Param("email") String email,
+                                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * @return the new version, empty when no user has this id
+     */
+    @Query("update users set name = :name, email = :email, updated_at = :updatedAt, version = version + 1 "
+            + "where id = :id returning version")
+    Mono<Long> updateNameAndEmail(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * @return number of rows deleted, 0 when no user has this id
+     */
+    @Modifying
+    @Query("delete from users where id = :id")
+    Mono<Integer> deleteUserById(@Param("id") Long id);
+
+    /**
+     * Appends a row to the user_events outbox, as {@link com.desafio2.demo2.model.UserEvent}
+     * does for the servlet mode. Run it in the same transaction as the change it describes.
+     */
+    @Modifying
+    @Query("insert into user_events (user_id, type, name, email, version, occurred_at) "
+            + "values (:userId, :type, :name, :email, :version, :occurredAt)")
+    Mono<Integer> insertEvent(@Param("userId") Long userId, @Param("type") String type, @Param("name") String name,
+                              @Param("email") String email, @Param("version") Long version,
+                              @Param("occurredAt") LocalDateTime occurredAt);
+}
@@ -0,0 +1,164 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UpsertedUser;
+import com.desafio2.demo2.service.SearchQuery;
+import com.desafio2.demo2.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Non-blocking variant of {@link UserService} used when the application runs with the
+ * {@code reactive} profile. Same rules and error types; results are {@link Mono}/{@link Flux}.
+ * Every write appends its user_events row in the same R2DBC transaction, so reactive
+ * changes reach the change feed and the collection ETag served by servlet instances.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private final ReactiveUserRepository repository;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveUserService(ReactiveUserRepository repository, TransactionalOperator transactionalOperator) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<UserResponseDTO> create(UserRequestDTO request) {
+        logger.debug("Creating user with email: {}", request.getEmail());
+
+        return repository.save(new UserRow(request.getName(), request.getEmail()))
+                .flatMap(row -> record(UserEvent.created(row.getId(), row.getName(), row.getEmail(), row.getVersion()))
+                        .thenReturn(toResponse(row)))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> new EmailAlreadyExistsException(request.getEmail()));
+    }
+
+    public Mono<UpsertedUser> upsert(UserRequestDTO request) {
+        logger.debug("Upserting user with email: {}", request.getEmail());
+        return repository.upsertByEmail(request.getName(), request.getEmail(), User.currentTimestamp())
+                .flatMap(result -> record(result.getInserted()
+                        ? UserEvent.created(result.getId(), result.getName(), result.getEmail(), result.getVersion())
+                        : UserEvent.updated(result.getId(), result.getName(), result.getEmail(), result.getVersion()))
+                        .<UpsertedUser>thenReturn(result))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<UserResponseDTO> findById(Long id) {
+        logger.debug("Finding user by id: {}", id);
+
+        return repository.findById(id)
+                .map(ReactiveUserService::toResponse)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    public Mono<UserResponseDTO> findByEmail(String email) {
+        logger.debug("Finding user by email: {}", email);
+
+        return repository.findByEmail(email)
+                .map(ReactiveUserService::toResponse)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(email)));
+    }
+
+    public Mono<UserLookupResponseDTO> findByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        logger.debug("Finding {} users by id", distinct.size());
+
+        if (distinct.isEmpty()) {
+            return Mono.just(new UserLookupResponseDTO(List.of(), List.of()));
+        }
+        return repository.findByIds(distinct.toArray(Long[]::new))
+                .map(ReactiveUserService::toResponse)
+                .collectList()
+                .map(found -> UserLookupResponseDTO.inRequestOrder(distinct, found));
+    }
+
+    public Flux<UserResponseDTO> findAll() {
+        logger.debug("Fetching all users");
+        return repository.findAllByOrderById().map(ReactiveUserService::toResponse);
+    }
+
+    public Mono<UserPageResponseDTO> findPage(Long after, int limit) {
+        int size = Math.max(1, Math.min(limit, UserService.MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+        logger.debug("Fetching users after id: {} (limit {})", cursor, size);
+
+        // One extra row tells whether another page exists, as in the servlet service
+        return repository.findPageAfter(cursor, size + 1)
+                .map(ReactiveUserService::toResponse)
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= size) {
+                        return new UserPageResponseDTO(rows, null);
+                    }
+                    List<UserResponseDTO> items = rows.subList(0, size);
+                    return new UserPageResponseDTO(items, items.get(size - 1).getId());
+                });
+    }
+
+    public Flux<UserResponseDTO> search(String query, String match, int limit) {
+        // Deferred so invalid input surfaces as an error signal, not a throw at assembly time
+        return Flux.defer(() -> {
+            SearchQuery search = SearchQuery.of(query, match, limit);
+            logger.debug("Searching users ({}) for: {}", match, search.getTerm());
+
+            Flux<UserRow> rows = search.isContains()
+                    ? repository.searchByContains(search.getPattern(), search.getSize())
+                    : repository.searchByPrefix(search.getPattern(), search.getSize());
+            return rows.map(ReactiveUserService::toResponse);
+        });
+    }
+
+    public Mono<UserResponseDTO> update(Long id, UserRequestDTO request) {
+        logger.debug("Updating user with id: {}", id);
+
+        LocalDateTime updatedAt = User.currentTimestamp();
+        return repository.updateNameAndEmail(id, request.getName(), request.getEmail(), updatedAt)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(version -> record(UserEvent.updated(id, request.getName(), request.getEmail(), version))
+                        .thenReturn(new UserResponseDTO(id, request.getName(), request.getEmail(), updatedAt, version)))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> new EmailAlreadyExistsException(request.getEmail()));
+    }
+
+    public Mono<Void> delete(Long id) {
+        logger.debug("Deleting user with id: {}", id);
+
+        return repository.deleteUserById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new UserNotFoundException(id))
+                        : record(UserEvent.deleted(id)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> record(UserEvent event) {
+        return repository.insertEvent(event.getUserId(), event.getType().name(), event.getName(),
+                event.getEmail(), event.getVersion(), event.getOccurredAt()).then();
+    }
+
+    private static UserResponseDTO toResponse(UserRow row) {
+        return new UserResponseDTO(row.getId(), row.getName(), row.getEmail(), row.getUpdatedAt(), row.getVersion());
+    }
+}
@@ -0,0 +1,41 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.repository.UpsertedUser;
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC result of {@link ReactiveUserRepository#upsertByEmail}. An interface projection
+ * would be read through {@link UserRow}, which has no {@code inserted} column.
+ */
+public class UpsertedRow implements UpsertedUser {
+
+    private Long id;
+    private String name;
+    private String email;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    private Long version;
+    private Boolean inserted;
+
+    @Override
+    public Long getId() { return id; }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public String getEmail() { return email; }
+
+    @Override
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    @Override
+    public Long getVersion() { return version; }
+
+    @Override
+    public Boolean getInserted() { return inserted; }
+}
@@ -0,0 +1,51 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.model.User;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the {@code users} table, the reactive counterpart of {@link User}.
+ * A row without an id is inserted and takes its id from the column default.
+ */
+@Table("users")
+public class UserRow {
+
+    @Id
+    private Long id;
+    private String name;
+    private String email;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public UserRow() {}
+
+    public UserRow(String name, String email) {
+        this.name = name;
+        this.email = email;
+        this.updatedAt = User.currentTimestamp();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,40 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Native statements that depend on the table layout or the database. Email lookups depend
+ * on the layout. With the hash-partitioned layout
+ * ({@code users.partitioned=true}, see db/partitioning) no index on {@code users.email}
+ * spans the partitions, so both go through the {@code user_emails} lookup table. Id
+ * lookups need nothing special: {@code where id = ?} is pruned to one partition.
+ */
+public interface PartitionAwareUserRepository {
+
+    /**
+     * Exact email lookup: the unique email index, or one {@code user_emails} probe followed
+     * by a primary-key read of a single partition.
+     */
+    @Transactional(readOnly = true)
+    Optional<UserResponseDTO> findDtoByEmail(String email);
+
+    /**
+     * Creates the user, or updates the name of the user that already owns this email,
+     * in a single PostgreSQL statement.
+     */
+    @Transactional
+    UpsertedUser upsertByEmail(String name, String email, LocalDateTime updatedAt);
+
+    /**
+     * Updates name and email in a single statement, without a version check, and returns the
+     * new version from that same statement.
+     *
+     * @return the new version, empty when no user has this id
+     */
+    @Transactional
+    Optional<Long> updateNameAndEmail(Long id, String name, String email, LocalDateTime updatedAt);
+}
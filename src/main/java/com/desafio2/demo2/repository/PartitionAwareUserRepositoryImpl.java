@@ -0,0 +1,161 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+class PartitionAwareUserRepositoryImpl implements PartitionAwareUserRepository {
+
+    private static final String FIND_BY_EMAIL =
+            "select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) "
+                    + "from User u where u.email = :email";
+
+    // The id comes from one user_emails partition; run-time pruning then reads one users partition
+    private static final String FIND_BY_EMAIL_PARTITIONED =
+            "select u.id, u.name, u.email from users u "
+                    + "where u.id = (select e.user_id from user_emails e where e.email = :email)";
+
+    // xmax = 0 only holds for a freshly inserted tuple, which tells the caller which branch ran
+    private static final String UPSERT =
+            "insert into users (name, email, updated_at) values (:name, :email, :updatedAt) "
+                    + "on conflict (email) do update set name = excluded.name, updated_at = excluded.updated_at, "
+                    + "version = users.version + 1 "
+                    + "returning id, name, email, updated_at as \"updatedAt\", version, (xmax = 0) as inserted";
+
+    // No unique index on users.email to conflict on: update through user_emails, or insert.
+    // Two first-time upserts of one email can race; the loser fails on user_emails (409).
+    private static final String UPSERT_PARTITIONED =
+            "with existing as (select user_id from user_emails where email = :email), "
+                    + "updated as (update users u set name = :name, updated_at = :updatedAt, version = u.version + 1 "
+                    + "from existing e where u.id = e.user_id "
+                    + "returning u.id, u.name, u.email, u.updated_at, u.version, false as inserted), "
+                    + "created as (insert into users (name, email, updated_at) "
+                    + "select :name, :email, :updatedAt where not exists (select 1 from existing) "
+                    + "returning id, name, email, updated_at, version, true as inserted) "
+                    + "select id, name, email, updated_at as \"updatedAt\", version, inserted from updated "
+                    + "union all "
+                    + "select id, name, email, updated_at as \"updatedAt\", version, inserted from created";
+
+    // The bumped version comes back from the UPDATE itself, so the ETag needs no second read
+    private static final String UPDATE_RETURNING_VERSION =
+            "update users set name = :name, email = :email, updated_at = :updatedAt, version = version + 1 "
+                    + "where id = :id returning version";
+
+    // H2 (tests) has no RETURNING; it reads the changed row through a data change delta table
+    private static final String UPDATE_RETURNING_VERSION_H2 =
+            "select version from final table (" + UPDATE_RETURNING_VERSION.replace(" returning version", "") + ")";
+
+    private final EntityManager entityManager;
+    private final boolean partitioned;
+    private volatile Boolean postgres;
+
+    PartitionAwareUserRepositoryImpl(EntityManager entityManager,
+                                     @Value("${users.partitioned:false}") boolean partitioned) {
+        this.entityManager = entityManager;
+        this.partitioned = partitioned;
+    }
+
+    @Override
+    public Optional<UserResponseDTO> findDtoByEmail(String email) {
+        if (!partitioned) {
+            return entityManager.createQuery(FIND_BY_EMAIL, UserResponseDTO.class)
+                    .setParameter("email", email)
+                    .getResultStream()
+                    .findFirst();
+        }
+
+        List<?> rows = entityManager.createNativeQuery(FIND_BY_EMAIL_PARTITIONED, Tuple.class)
+                .setParameter("email", email)
+                .getResultList();
+        return rows.stream()
+                .findFirst()
+                .map(Tuple.class::cast)
+                .map(row -> new UserResponseDTO(((Number) row.get(0)).longValue(),
+                        (String) row.get(1), (String) row.get(2)));
+    }
+
+    @Override
+    public UpsertedUser upsertByEmail(String name, String email, LocalDateTime updatedAt) {
+        Tuple row = (Tuple) entityManager.createNativeQuery(partitioned ? UPSERT_PARTITIONED : UPSERT, Tuple.class)
+                .setParameter("name", name)
+                .setParameter("email", email)
+                .setParameter("updatedAt", updatedAt)
+                .getSingleResult();
+
+        return new Row(row);
+    }
+
+    @Override
+    public Optional<Long> updateNameAndEmail(Long id, String name, String email, LocalDateTime updatedAt) {
+        List<?> versions = entityManager.createNativeQuery(
+                        isPostgres() ? UPDATE_RETURNING_VERSION : UPDATE_RETURNING_VERSION_H2, Long.class)
+                .setParameter("id", id)
+                .setParameter("name", name)
+                .setParameter("email", email)
+                .setParameter("updatedAt", updatedAt)
+                .getResultList();
+        return versions.stream().findFirst().map(version -> ((Number) version).longValue());
+    }
+
+    /**
+     * Whether the database is PostgreSQL; checked once, on first use.
+     */
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static final class Row implements UpsertedUser {
+
+        private final Long id;
+        private final String name;
+        private final String email;
+        private final LocalDateTime updatedAt;
+        private final Long version;
+        private final Boolean inserted;
+
+        private Row(Tuple row) {
+            this.id = ((Number) row.get("id")).longValue();
+            this.name = (String) row.get("name");
+            this.email = (String) row.get("email");
+            this.updatedAt = toLocalDateTime(row.get("updatedAt"));
+            this.version = ((Number) row.get("version")).longValue();
+            this.inserted = (Boolean) row.get("inserted");
+        }
+
+        @Override
+        public Long getId() { return id; }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public String getEmail() { return email; }
+
+        @Override
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        @Override
+        public Long getVersion() { return version; }
+
+        @Override
+        public Boolean getInserted() { return inserted; }
+    }
+}
@@ -0,0 +1,22 @@
+package com.desafio2.demo2.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row returned by {@link PartitionAwareUserRepository#upsertByEmail}. {@code inserted} is {@code true}
+ * when the statement created the row and {@code false} when it hit an existing email.
+ */
+public interface UpsertedUser {
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+
+    Boolean getInserted();
+}
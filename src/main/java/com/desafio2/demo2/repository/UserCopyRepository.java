@@ -0,0 +1,126 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserRequestDTO;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk insert through PostgreSQL {@code COPY}, for the import endpoint. A chunk is copied
+ * into a temporary staging table, then moved into {@code users} by one statement that skips
+ * emails already taken and writes the CREATED outbox events. Must run inside a transaction;
+ * the staging rows are dropped when it commits.
+ */
+@Repository
+public class UserCopyRepository {
+
+    private static final String CREATE_STAGING = "create temporary table if not exists user_import_staging "
+            + "(name varchar(100), email varchar(100)) on commit delete rows";
+
+    private static final String COPY = "copy user_import_staging (name, email) from stdin";
+
+    private static final String MOVE = "with inserted as ("
+            + "insert into users (name, email, updated_at) "
+            + "select s.name, s.email, ? from user_import_staging s where not exists (%s) "
+            + "on conflict do nothing "
+            + "returning id, name, email, version, updated_at), "
+            + "events as (insert into user_events (user_id, type, name, email, version, occurred_at) "
+            + "select id, 'CREATED', name, email, version, updated_at from inserted) "
+            + "select email from inserted";
+
+    // On the partitioned layout email uniqueness lives in user_emails (see db/partitioning)
+    private static final String TAKEN = "select 1 from users u where u.email = s.email";
+    private static final String TAKEN_PARTITIONED = "select 1 from user_emails e where e.email = s.email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String move;
+    private volatile Boolean supported;
+
+    public UserCopyRepository(JdbcTemplate jdbcTemplate,
+                              @Value("${users.partitioned:false}") boolean partitioned) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.move = String.format(MOVE, partitioned ? TAKEN_PARTITIONED : TAKEN);
+    }
+
+    /**
+     * Whether the database is PostgreSQL; checked once, on first use.
+     */
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+            supported = result;
+        }
+        return result;
+    }
+
+    /**
+     * Inserts the users whose email is free and returns those emails. The caller has already
+     * removed duplicates within the chunk.
+     */
+    public Set<String> copyIn(List<UserRequestDTO> users, LocalDateTime updatedAt) {
+        return jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+            }
+            copy(connection, users);
+
+            Set<String> inserted = new HashSet<>(users.size() * 2);
+            try (PreparedStatement statement = connection.prepareStatement(move)) {
+                statement.setObject(1, updatedAt);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        inserted.add(rows.getString(1));
+                    }
+                }
+            }
+            return inserted;
+        });
+    }
+
+    private static void copy(Connection connection, List<UserRequestDTO> users) throws SQLException {
+        StringBuilder data = new StringBuilder(users.size() * 48);
+        for (UserRequestDTO user : users) {
+            appendText(data, user.getName());
+            data.append('\t');
+            appendText(data, user.getEmail());
+            data.append('\n');
+        }
+
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(data.toString()));
+        } catch (IOException ex) {
+            throw new DataAccessResourceFailureException("Could not stream rows to COPY", ex);
+        }
+    }
+
+    // COPY text format: backslash escapes for the delimiter, line breaks and the backslash itself
+    private static void appendText(StringBuilder data, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> data.append("\\\\");
+                case '\t' -> data.append("\\t");
+                case '\n' -> data.append("\\n");
+                case '\r' -> data.append("\\r");
+                default -> data.append(c);
+            }
+        }
+    }
+}
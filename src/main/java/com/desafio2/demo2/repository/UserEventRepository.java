@@ -0,0 +1,53 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.model.UserEvent;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+
+    /**
+     * Committed events the relay has not published yet, oldest first, locked until the
+     * transaction ends. Rows another relay has already locked are skipped rather than
+     * waited for, so two relays never stamp the same event. A lock timeout of -2 is how
+     * Hibernate spells {@code SKIP LOCKED}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select e from UserEvent e where e.position is null order by e.id")
+    List<UserEvent> findPending(Pageable pageable);
+
+    @Query("select coalesce(max(e.position), 0) from UserEvent e")
+    long findLastPosition();
+
+    /**
+     * Latest published position and when it was published, read from the position index
+     * alone; empty until the first event is published.
+     */
+    @Transactional(readOnly = true)
+    @Query("select e.position as position, e.publishedAt as lastModified from UserEvent e "
+            + "where e.position = (select max(p.position) from UserEvent p)")
+    Optional<UsersVersion> findUsersVersion();
+
+    /**
+     * Published events after {@code since}, in feed order.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserEventDTO(e.position, e.type, e.userId, e.name, e.email, "
+            + "e.version, e.occurredAt) from UserEvent e where e.position > :since order by e.position")
+    List<UserEventDTO> findPublishedAfter(@Param("since") long since, Pageable pageable);
+}
@@ -1,9 +1,124 @@
-package com.desafio2.demo2.repository;
-
-import com.desafio2.demo2.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-}
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Long>, PartitionAwareUserRepository {
+
+    /**
+     * Single user by id, selected straight into the DTO. Read queries in this repository
+     * never create managed entities, so there are no snapshots to dirty-check, and their
+     * read-only transactions skip the flush. On the partitioned layout the id equality
+     * prunes the scan to a single partition.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email, u.updatedAt, u.version) "
+            + "from User u where u.id = :id")
+    Optional<UserResponseDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Users with the given ids as DTOs, in no particular order; ids without a user are
+     * left out. Each carries its version, which the lookup response lists for If-Match, but
+     * not updatedAt: no per-user Last-Modified is sent from here. One statement for the
+     * whole list: with in-clause parameter padding the ids are bound as a power-of-two
+     * number of parameters, so lookups of similar size share a prepared statement.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email, null, u.version) "
+            + "from User u where u.id in :ids")
+    List<UserResponseDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Every user as a DTO, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) "
+            + "from User u order by u.id")
+    List<UserResponseDTO> findAllDtos();
+
+    /**
+     * Keyset page: users with an id greater than {@code after}, ordered by id.
+     * The page size comes from {@code pageable}; its offset is always 0.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserResponseDTO> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Streams every user as a DTO, ordered by id. Rows are fetched from a
+     * server-side cursor in chunks, and DTOs are not attached to the persistence
+     * context, so memory stays flat. Must be consumed inside a transaction and closed.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) "
+            + "from User u order by u.id")
+    Stream<UserResponseDTO> streamAll();
+
+    /**
+     * Case-insensitive prefix match on name or email. {@code pattern} must already be
+     * lower-cased, with {@code %}, {@code _} and {@code !} escaped by {@code !}.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) from User u "
+            + "where lower(u.name) like concat(:pattern, '%') escape '!' "
+            + "or lower(u.email) like concat(:pattern, '%') escape '!' "
+            + "order by u.id")
+    List<UserResponseDTO> searchByPrefix(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Case-insensitive substring match on name or email, escaped like {@link #searchByPrefix}.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.desafio2.demo2.dto.UserResponseDTO(u.id, u.name, u.email) from User u "
+            + "where lower(u.name) like concat('%', :pattern, '%') escape '!' "
+            + "or lower(u.email) like concat('%', :pattern, '%') escape '!' "
+            + "order by u.id")
+    List<UserResponseDTO> searchByContains(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Updates name and email only if the row is still at {@code version}. The check and
+     * the write are one statement, so no lock is held between reading and writing.
+     *
+     * @return 1 when updated, 0 when the user does not exist or has a different version
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.name = :name, u.email = :email, u.updatedAt = :updatedAt, "
+            + "u.version = u.version + 1 where u.id = :id and u.version = :version")
+    int updateNameAndEmailIfVersion(@Param("id") Long id, @Param("name") String name,
+                                    @Param("email") String email, @Param("updatedAt") LocalDateTime updatedAt,
+                                    @Param("version") long version);
+
+    @Transactional(readOnly = true)
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Deletes a user in a single statement.
+     *
+     * @return number of rows deleted, 0 when no user has this id
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+}
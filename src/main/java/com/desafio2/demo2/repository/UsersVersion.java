@@ -0,0 +1,31 @@
+package com.desafio2.demo2.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Collection-level validator for {@code GET /users}: the latest published position of the
+ * user_events outbox. Every insert, update and delete writes an event in its own
+ * transaction, so the position moves whenever the collection changes, once the relay
+ * has published the event.
+ */
+public interface UsersVersion {
+
+    /**
+     * Before any event has been published.
+     */
+    UsersVersion INITIAL = new UsersVersion() {
+        @Override
+        public long getPosition() {
+            return 0;
+        }
+
+        @Override
+        public LocalDateTime getLastModified() {
+            return null;
+        }
+    };
+
+    long getPosition();
+
+    LocalDateTime getLastModified();
+}
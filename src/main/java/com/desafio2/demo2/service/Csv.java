@@ -0,0 +1,59 @@
+package com.desafio2.demo2.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 fields for the CSV import and export: fields holding a comma, a quote or a line
+ * break are quoted, with quotes doubled. The import reads one record per line, so it does not
+ * accept quoted line breaks.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    public static void appendField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * @return the fields of one record, or {@code null} if a quoted field is not closed
+     */
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
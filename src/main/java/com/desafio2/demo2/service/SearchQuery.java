@@ -0,0 +1,67 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.exception.BadRequestException;
+
+/**
+ * A validated {@code /users/search} request: the lower-cased term escaped for
+ * {@code LIKE ... ESCAPE '!'}, the match mode and the clamped result size.
+ * Shared by the servlet and reactive services so both reject the same input.
+ */
+public final class SearchQuery {
+
+    public static final int MAX_RESULTS = 100;
+    public static final int MIN_CONTAINS_LENGTH = 3;
+
+    private final String term;
+    private final String pattern;
+    private final boolean contains;
+    private final int size;
+
+    private SearchQuery(String term, boolean contains, int size) {
+        this.term = term;
+        this.pattern = escapeLike(term);
+        this.contains = contains;
+        this.size = size;
+    }
+
+    public static SearchQuery of(String query, String match, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase();
+        if (term.isEmpty()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        if ("prefix".equalsIgnoreCase(match)) {
+            return new SearchQuery(term, false, size);
+        }
+        if ("contains".equalsIgnoreCase(match)) {
+            if (term.length() < MIN_CONTAINS_LENGTH) {
+                throw new BadRequestException(
+                        "Contains search needs at least " + MIN_CONTAINS_LENGTH + " characters");
+            }
+            return new SearchQuery(term, true, size);
+        }
+        throw new BadRequestException("Unknown match mode: " + match + " (expected prefix or contains)");
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean isContains() {
+        return contains;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
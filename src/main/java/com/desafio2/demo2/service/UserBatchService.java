@@ -0,0 +1,178 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.BatchItemResultDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BatchTooLargeException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many users per request. Every item is validated up front; valid items are
+ * inserted in chunks of {@code users.batch.size}, one transaction (and one JDBC batch)
+ * per chunk. If a chunk fails, its rows are retried one by one so each item gets its
+ * own result instead of the whole chunk failing. Each chunk writes its CREATED outbox
+ * events in the same transaction as the rows.
+ */
+@Service
+@Timed(value = "users.service", description = "Time spent in user service methods")
+public class UserBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchService.class);
+
+    private final UserRepository repository;
+    private final UserEventRepository eventRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxItems;
+
+    public UserBatchService(UserRepository repository,
+                            UserEventRepository eventRepository,
+                            Validator validator,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${users.batch.size:100}") int batchSize,
+                            @Value("${users.batch.max-items:10000}") int maxItems) {
+        this.repository = repository;
+        this.eventRepository = eventRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public BatchCreateResponseDTO createAll(List<UserRequestDTO> requests) {
+        if (requests.size() > maxItems) {
+            throw new BatchTooLargeException(maxItems);
+        }
+
+        logger.debug("Creating {} users in batches of {}", requests.size(), batchSize);
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[requests.size()];
+        List<Integer> chunk = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = validate(requests.get(i));
+            if (violations != null) {
+                results[i] = BatchItemResultDTO.invalid(i, violations);
+                continue;
+            }
+
+            chunk.add(i);
+            if (chunk.size() == batchSize) {
+                insertChunk(requests, chunk, results);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            insertChunk(requests, chunk, results);
+        }
+
+        BatchCreateResponseDTO response = new BatchCreateResponseDTO(Arrays.asList(results));
+        logger.debug("Batch finished: {} created, {} failed", response.getCreated(), response.getFailed());
+        return response;
+    }
+
+    private void insertChunk(List<UserRequestDTO> requests, List<Integer> indexes, BatchItemResultDTO[] results) {
+        List<User> users = indexes.stream()
+                .map(i -> toEntity(requests.get(i)))
+                .collect(Collectors.toList());
+
+        try {
+            List<User> saved = transactionTemplate.execute(status -> {
+                List<User> rows = repository.saveAll(users);
+                eventRepository.saveAll(rows.stream()
+                        .map(UserBatchService::createdEvent)
+                        .collect(Collectors.toList()));
+                return rows;
+            });
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = BatchItemResultDTO.created(indexes.get(i), toResponse(saved.get(i)));
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            logger.warn("Batch of {} users failed, retrying one by one: {}", indexes.size(), ex.getMessage());
+            for (Integer index : indexes) {
+                results[index] = insertOne(index, requests.get(index));
+            }
+        }
+    }
+
+    private BatchItemResultDTO insertOne(int index, UserRequestDTO request) {
+        try {
+            User saved = transactionTemplate.execute(status -> {
+                User row = repository.save(toEntity(request));
+                eventRepository.save(createdEvent(row));
+                return row;
+            });
+            return BatchItemResultDTO.created(index, toResponse(saved));
+        } catch (DataIntegrityViolationException ex) {
+            return BatchItemResultDTO.failed(index, "Email already exists: " + request.getEmail());
+        } catch (DataAccessException | TransactionException ex) {
+            return BatchItemResultDTO.failed(index, "Could not create user");
+        }
+    }
+
+    private String validate(UserRequestDTO request) {
+        return violations(validator, request);
+    }
+
+    /**
+     * The request's constraint violations as one {@code "field: message"} list sorted by
+     * field, or {@code null} when it is valid. Shared with {@link UserImportService}.
+     */
+    static String violations(Validator validator, UserRequestDTO request) {
+        if (request == null) {
+            return "Item is empty";
+        }
+
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static User toEntity(UserRequestDTO request) {
+        return new User(request.getName(), request.getEmail());
+    }
+
+    private static UserEvent createdEvent(User user) {
+        return UserEvent.created(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    private static UserResponseDTO toResponse(User user) {
+        return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(),
+                user.getUpdatedAt(), user.getVersion());
+    }
+}
@@ -0,0 +1,231 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.UserChangesResponseDTO;
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.repository.UserEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the published change feed. Pollers page through it by position. SSE subscribers
+ * first catch up from the table, then receive each batch as the relay publishes it.
+ * <p>
+ * Every subscriber is served by its own virtual thread, so a slow client only holds up its
+ * own stream. Catch-up sends one page before reading the next, and a send blocks while
+ * the client is not reading, so an old {@code since} never loads the history into memory.
+ * The relay only hands over the latest batch and returns. A subscriber that falls more
+ * than one batch behind reads the gap from the table.
+ * <p>
+ * Batches published by other instances, or by any instance when this one does not relay,
+ * never reach {@link #published}. {@link #poll} picks them up: it reads the last position
+ * on the relay interval and wakes subscribers that are behind it.
+ */
+@Component
+public class UserChangeFeed implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserEventRepository repository;
+    private final Duration streamTimeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("change-feed-", 0).factory());
+
+    // Highest position known to be published, from local batches or from the table
+    private final AtomicLong head = new AtomicLong();
+
+    public UserChangeFeed(UserEventRepository repository,
+                          @Value("${users.events.stream-timeout:30m}") Duration streamTimeout) {
+        this.repository = repository;
+        this.streamTimeout = streamTimeout;
+    }
+
+    /**
+     * Published events after position {@code since}, oldest first.
+     */
+    public UserChangesResponseDTO read(long since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserEventDTO> events = repository.findPublishedAfter(since, PageRequest.of(0, size));
+        long next = events.isEmpty() ? since : events.get(events.size() - 1).getPosition();
+        return new UserChangesResponseDTO(events, next);
+    }
+
+    /**
+     * Opens an SSE stream that starts after {@code since}. The SSE id of every event is its
+     * position, so a reconnecting client resumes from Last-Event-ID without gaps. Nothing is
+     * sent from the calling thread: the catch-up starts on the subscriber's own thread, and
+     * its first page is only read from the table after this method has returned.
+     */
+    public SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since);
+
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        logger.debug("Change feed subscriber added after position {} ({} open)", since, subscribers.size());
+        subscriber.signal(null);
+        return emitter;
+    }
+
+    /**
+     * Called by the relay after a batch has committed. Only hands the batch over; sending
+     * happens on each subscriber's thread.
+     */
+    void published(List<UserEventDTO> batch) {
+        if (!batch.isEmpty()) {
+            head.accumulateAndGet(batch.get(batch.size() - 1).getPosition(), Math::max);
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.signal(batch);
+        }
+    }
+
+    /**
+     * Reads the last published position and, if it moved past what this instance has seen,
+     * wakes every subscriber to read the new events from the table. Costs one probe of the
+     * position index per run, and nothing while no one is subscribed.
+     */
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            long last = repository.findLastPosition();
+            if (last > head.getAndAccumulate(last, Math::max)) {
+                logger.debug("Change feed moved to position {}; waking {} subscribers", last, subscribers.size());
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.signal(null);
+                }
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("Could not read the change feed position, retrying on next run: {}", ex.getMessage());
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        delivery.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<List<UserEventDTO>> latest = new AtomicReference<>();
+        private final AtomicInteger signals = new AtomicInteger();
+
+        // Only touched by drain(), which never runs twice at once for a subscriber
+        private long position;
+        private boolean caughtUp;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        /**
+         * Keeps {@code batch} (a newer one replaces it if the client is still busy) and starts
+         * a drain unless one is already running; that drain then loops once more. A
+         * {@code null} batch asks the drain to read from the table if it is behind.
+         */
+        void signal(List<UserEventDTO> batch) {
+            if (batch != null) {
+                latest.set(batch);
+            }
+            if (signals.getAndIncrement() == 0) {
+                try {
+                    delivery.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            try {
+                do {
+                    deliver(latest.getAndSet(null));
+                    missed = signals.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (IOException | IllegalStateException | DataAccessException ex) {
+                close(ex);
+            }
+        }
+
+        private void deliver(List<UserEventDTO> batch) throws IOException {
+            if (batch == null) {
+                // First run, or poll() saw events this instance did not publish
+                if (!caughtUp || position < head.get()) {
+                    catchUp();
+                    caughtUp = true;
+                }
+                return;
+            }
+
+            // Catch-up may already have read part or all of this batch from the table
+            List<UserEventDTO> fresh = batch.stream().filter(event -> event.getPosition() > position).toList();
+            if (fresh.isEmpty()) {
+                return;
+            }
+            if (fresh.get(0).getPosition() == position + 1) {
+                send(fresh);
+            } else {
+                // Missed a batch (replaced while this client was slow, or published by
+                // another instance): read the gap from the table
+                catchUp();
+            }
+            caughtUp = true;
+        }
+
+        private void catchUp() throws IOException {
+            List<UserEventDTO> page;
+            do {
+                page = repository.findPublishedAfter(position, PageRequest.of(0, MAX_PAGE_SIZE));
+                send(page);
+            } while (page.size() == MAX_PAGE_SIZE);
+        }
+
+        private void send(List<UserEventDTO> events) throws IOException {
+            for (UserEventDTO event : events) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getPosition()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+                position = event.getPosition();
+            }
+        }
+
+        private void close(Exception ex) {
+            logger.debug("Change feed subscriber at position {} disconnected: {}", position, ex.getMessage());
+            subscribers.remove(this);
+            emitter.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UserEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes committed outbox rows. Each run stamps up to {@code users.events.batch-size}
+ * pending events with the next positions after the last published one, in one transaction,
+ * and then hands them to the {@link UserChangeFeed} for live subscribers.
+ * <p>
+ * Positions are assigned here rather than taken from the row id: ids are handed out when a
+ * writer starts, so a slow transaction can commit a lower id after a consumer has already
+ * read past it. Positions only become visible together with every position before them.
+ * <p>
+ * Pending events are published in id order. Ids are taken one at a time while the writer
+ * holds the user's row lock, so the events of any one user always get positions in the
+ * order their changes committed. Events of different users may interleave either way.
+ * <p>
+ * Pending rows are locked with {@code FOR UPDATE SKIP LOCKED}, and each stamp only applies
+ * while the row still has no position, so two relays never stamp the same event. If two
+ * instances relay at once and read the same last position, the unique constraint on
+ * {@code position} lets only one of them commit; the other retries on its next run.
+ */
+@Service
+public class UserEventRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventRelay.class);
+
+    private static final String PUBLISH =
+            "update user_events set position = ?, published_at = ? where id = ? and position is null";
+
+    private final UserEventRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserChangeFeed feed;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UserEventRelay(UserEventRepository repository,
+                          JdbcTemplate jdbcTemplate,
+                          UserChangeFeed feed,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${users.events.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.feed = feed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs on {@code users.events.relay-interval-ms} when the relay is enabled (see
+     * {@link com.desafio2.demo2.config.SchedulingConfig}).
+     */
+    public void relay() {
+        try {
+            // Keep going while batches come back full, so a backlog drains without waiting
+            while (publishPending() == batchSize) {
+                logger.debug("Outbox backlog: publishing next batch");
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            logger.warn("Could not publish user events, retrying on next run: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Publishes one batch of pending events.
+     *
+     * @return number of events published, 0 when nothing was pending
+     */
+    public int publishPending() {
+        List<UserEventDTO> published = transactionTemplate.execute(status -> {
+            List<UserEvent> pending = repository.findPending(PageRequest.of(0, batchSize));
+            if (pending.isEmpty()) {
+                return List.<UserEventDTO>of();
+            }
+
+            long position = repository.findLastPosition();
+            LocalDateTime publishedAt = User.currentTimestamp();
+            List<Object[]> stamps = new ArrayList<>(pending.size());
+            List<UserEventDTO> events = new ArrayList<>(pending.size());
+            for (UserEvent event : pending) {
+                position++;
+                stamps.add(new Object[]{position, publishedAt, event.getId()});
+                events.add(UserEventDTO.from(event, position));
+            }
+
+            int[] stamped = jdbcTemplate.batchUpdate(PUBLISH, stamps);
+            for (int i = 0; i < stamped.length; i++) {
+                if (stamped[i] == 0) {
+                    throw new ConcurrencyFailureException(
+                            "User event " + pending.get(i).getId() + " was published by another relay");
+                }
+            }
+            return events;
+        });
+
+        if (!published.isEmpty()) {
+            logger.debug("Published user events {} to {}",
+                    published.get(0).getPosition(), published.get(published.size() - 1).getPosition());
+            feed.published(published);
+        }
+        return published.size();
+    }
+}
@@ -0,0 +1,236 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.BatchItemResultDTO;
+import com.desafio2.demo2.dto.ImportErrorDTO;
+import com.desafio2.demo2.dto.ImportProgressDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.repository.UserCopyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports users from an NDJSON or CSV upload read line by line, so memory holds one chunk of
+ * {@code users.import.chunk-size} users whatever the file size. Each line is validated like
+ * {@code POST /users}; valid users are loaded a chunk per transaction through PostgreSQL
+ * {@code COPY}, or through {@link UserBatchService} JDBC batches on other databases or when a
+ * COPY fails. Errors are reported per line and progress after every chunk.
+ */
+@Service
+@Timed(value = "users.service", description = "Time spent in user service methods")
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Receives the outcome of the import as it goes; called on the importing thread.
+     */
+    public interface Listener {
+
+        void onError(ImportErrorDTO error);
+
+        void onProgress(ImportProgressDTO progress);
+    }
+
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final UserCopyRepository copyRepository;
+    private final UserBatchService batchService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public UserImportService(ObjectMapper objectMapper,
+                             Validator validator,
+                             UserCopyRepository copyRepository,
+                             UserBatchService batchService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${users.import.chunk-size:5000}") int chunkSize) {
+        this.reader = objectMapper.readerFor(UserRequestDTO.class);
+        this.validator = validator;
+        this.copyRepository = copyRepository;
+        this.batchService = batchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @throws BadRequestException if a CSV upload does not start with a header naming the
+     *                             {@code name} and {@code email} columns; nothing is imported
+     */
+    public ImportProgressDTO importUsers(BufferedReader source, Format format, Listener listener) throws IOException {
+        Run run = new Run(listener);
+        CsvColumns columns = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = source.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = CsvColumns.of(line);
+                continue;
+            }
+
+            run.processed++;
+            UserRequestDTO user;
+            try {
+                user = format == Format.CSV ? columns.read(line) : reader.readValue(line);
+            } catch (JsonProcessingException | IllegalArgumentException ex) {
+                run.fail(lineNumber, format == Format.CSV ? ex.getMessage() : "Malformed JSON");
+                continue;
+            }
+
+            String violations = UserBatchService.violations(validator, user);
+            if (violations != null) {
+                run.fail(lineNumber, violations);
+            } else {
+                run.add(lineNumber, user);
+            }
+        }
+
+        run.flush();
+        ImportProgressDTO done = run.progress(true);
+        logger.info("Import finished: {} lines, {} imported, {} failed", done.getProcessed(), done.getImported(),
+                done.getFailed());
+        listener.onProgress(done);
+        return done;
+    }
+
+    private final class Run {
+
+        private final Listener listener;
+        private final List<Long> lines = new ArrayList<>(chunkSize);
+        private final List<UserRequestDTO> users = new ArrayList<>(chunkSize);
+        private final Map<String, Long> emails = new HashMap<>(chunkSize * 2);
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private Run(Listener listener) {
+            this.listener = listener;
+        }
+
+        private void add(long line, UserRequestDTO user) {
+            Long first = emails.putIfAbsent(user.getEmail(), line);
+            if (first != null) {
+                fail(line, "Email already used on line " + first + ": " + user.getEmail());
+                return;
+            }
+
+            lines.add(line);
+            users.add(user);
+            if (users.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        private void fail(long line, String error) {
+            failed++;
+            listener.onError(new ImportErrorDTO(line, error));
+        }
+
+        private void flush() {
+            if (users.isEmpty()) {
+                return;
+            }
+
+            if (!copyRepository.isSupported() || !copy()) {
+                insertInBatches();
+            }
+            lines.clear();
+            users.clear();
+            emails.clear();
+            listener.onProgress(progress(false));
+        }
+
+        private boolean copy() {
+            Set<String> inserted;
+            try {
+                inserted = transactionTemplate.execute(status ->
+                        copyRepository.copyIn(users, User.currentTimestamp()));
+            } catch (DataAccessException | TransactionException ex) {
+                logger.warn("COPY of {} users failed, loading them in batches: {}", users.size(), ex.getMessage());
+                return false;
+            }
+
+            for (int i = 0; i < users.size(); i++) {
+                String email = users.get(i).getEmail();
+                if (inserted.contains(email)) {
+                    imported++;
+                } else {
+                    fail(lines.get(i), "Email already exists: " + email);
+                }
+            }
+            return true;
+        }
+
+        private void insertInBatches() {
+            for (BatchItemResultDTO result : batchService.createAll(List.copyOf(users)).getResults()) {
+                if (result.getStatus() == BatchItemResultDTO.Status.CREATED) {
+                    imported++;
+                } else {
+                    fail(lines.get(result.getIndex()), result.getError());
+                }
+            }
+        }
+
+        private ImportProgressDTO progress(boolean done) {
+            return new ImportProgressDTO(processed, imported, failed, done);
+        }
+    }
+
+    /**
+     * Positions of the {@code name} and {@code email} columns, from the header line.
+     */
+    private record CsvColumns(int name, int email, int count) {
+
+        static CsvColumns of(String header) {
+            List<String> fields = Csv.split(header);
+            List<String> names = fields == null ? List.of() : fields.stream()
+                    .map(field -> field.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            int name = names.indexOf("name");
+            int email = names.indexOf("email");
+            if (name < 0 || email < 0) {
+                throw new BadRequestException("CSV header must name the name and email columns");
+            }
+            return new CsvColumns(name, email, names.size());
+        }
+
+        UserRequestDTO read(String line) {
+            List<String> fields = Csv.split(line);
+            if (fields == null) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            if (fields.size() != count) {
+                throw new IllegalArgumentException("Expected " + count + " columns but found " + fields.size());
+            }
+            return new UserRequestDTO(fields.get(name), fields.get(email));
+        }
+    }
+}
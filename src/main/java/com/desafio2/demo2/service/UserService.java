@@ -1,96 +1,278 @@
-package com.desafio2.demo2.service;
-
-import com.desafio2.demo2.dto.UserRequestDTO;
-import com.desafio2.demo2.dto.UserResponseDTO;
-import com.desafio2.demo2.exception.UserNotFoundException;
-import com.desafio2.demo2.model.User;
-import com.desafio2.demo2.repository.UserRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
-
-import java.util.List;
-import java.util.stream.Collectors;
-
-@Service
-public class UserService {
-
-    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
-    private final UserRepository repository;
-
-    public UserService(UserRepository repository) {
-        this.repository = repository;
-    }
-
-    public UserResponseDTO create(UserRequestDTO request) {
-        logger.info("Creating user with email: {}", request.getEmail());
-
-        User user = new User();
-        user.setName(request.getName());
-        user.setEmail(request.getEmail());
-
-        User saved = repository.save(user);
-        logger.debug("User created successfully with id: {} and name: {}", saved.getId(), saved.getName());
-
-        return new UserResponseDTO(saved.getId(), saved.getName(), saved.getEmail());
-    }
-
-    public UserResponseDTO findById(Long id) {
-        logger.info("Finding user by id: {}", id);
-
-        User user = repository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("User not found with id: {}", id);
-                    return new UserNotFoundException(id);
-                });
-
-        logger.debug("User found: {}", user.getName());
-        return new UserResponseDTO(user.getId(), user.getName(), user.getEmail());
-    }
-
-    public List<UserResponseDTO> findAll() {
-        logger.info("Fetching all users");
-
-        List<UserResponseDTO> users = repository.findAll()
-                .stream()
-                .map(user -> new UserResponseDTO(user.getId(), user.getName(), user.getEmail()))
-                .collect(Collectors.toList());
-
-        logger.debug("Found {} users", users.size());
-        return users;
-    }
-
-    public UserResponseDTO update(Long id, UserRequestDTO request) {
-        logger.info("Updating user with id: {}", id);
-
-        User user = repository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Cannot update - user not found with id: {}", id);
-                    return new UserNotFoundException(id);
-                });
-
-        user.setName(request.getName());
-        user.setEmail(request.getEmail());
-
-        User updated = repository.save(user);
-
-        logger.debug("User updated with id: {}", id);
-
-        return new UserResponseDTO(updated.getId(), updated.getName(), updated.getEmail());
-    }
-
-    public void delete(Long id) {
-        logger.info("Deleting user with id: {}", id);
-
-        User user = repository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Cannot delete - user not found with id: {}", id);
-                    return new UserNotFoundException(id);
-                });
-
-        repository.delete(user);
-        logger.info("User deleted successfully with id: {}", id);
-    }
-
-
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.config.CacheConfig;
+import com.desafio2.demo2.config.ReadWriteRoutingDataSource;
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UpsertedUser;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import com.desafio2.demo2.repository.UsersVersion;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@Timed(value = "users.service", description = "Time spent in user service methods")
+public class UserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserRepository repository;
+    private final UserEventRepository eventRepository;
+
+    public UserService(UserRepository repository, UserEventRepository eventRepository) {
+        this.repository = repository;
+        this.eventRepository = eventRepository;
+    }
+
+    /*
+     * Every write also appends a row to the user_events outbox in the same transaction,
+     * so a change and its event commit or roll back together (see UserEventRelay).
+     */
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#result.id")
+    public UserResponseDTO create(UserRequestDTO request) {
+        logger.debug("Creating user with email: {}", request.getEmail());
+
+        User user = new User();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+
+        // The unique constraint on email is the duplicate check; no SELECT beforehand.
+        // Flush so a duplicate fails here, not when the surrounding transaction commits.
+        User saved;
+        try {
+            saved = repository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            logger.debug("Cannot create - email already exists: {}", request.getEmail());
+            throw new EmailAlreadyExistsException(request.getEmail());
+        }
+        logger.debug("User created successfully with id: {} and name: {}", saved.getId(), saved.getName());
+        eventRepository.save(UserEvent.created(saved.getId(), saved.getName(), saved.getEmail(), saved.getVersion()));
+
+        return new UserResponseDTO(saved.getId(), saved.getName(), saved.getEmail(),
+                saved.getUpdatedAt(), saved.getVersion());
+    }
+
+    /**
+     * Creates the user or, if the email is taken, updates that user's name, in one
+     * statement. Replaying the same request returns the same user instead of a 409.
+     * The cached entry is evicted rather than replaced because the result is not a DTO.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#result.id")
+    public UpsertedUser upsert(UserRequestDTO request) {
+        logger.debug("Upserting user with email: {}", request.getEmail());
+
+        UpsertedUser result = repository.upsertByEmail(
+                request.getName(), request.getEmail(), User.currentTimestamp());
+
+        logger.debug("User {} with id: {}", result.getInserted() ? "created" : "updated", result.getId());
+        eventRepository.save(result.getInserted()
+                ? UserEvent.created(result.getId(), result.getName(), result.getEmail(), result.getVersion())
+                : UserEvent.updated(result.getId(), result.getName(), result.getEmail(), result.getVersion()));
+        return result;
+    }
+
+    /**
+     * Runs only on a cache miss. The load reads the primary even when replicas are set: a
+     * lagging replica would otherwise put a stale user, or one already deleted, in the
+     * cache for the whole TTL, long after the replica has caught up.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserResponseDTO findById(Long id) {
+        logger.debug("Finding user by id: {}", id);
+
+        UserResponseDTO user = ReadWriteRoutingDataSource.onPrimary(() -> repository.findDtoById(id))
+                .orElseThrow(() -> {
+                    logger.debug("User not found with id: {}", id);
+                    return new UserNotFoundException(id);
+                });
+
+        logger.debug("User found: {}", user.getName());
+        return user;
+    }
+
+    /**
+     * Many users by id with one query instead of one {@link #findById} per id. Users come
+     * back in the order of {@code ids}, each once; ids that match no user are reported as
+     * missing rather than failing the whole lookup.
+     */
+    public UserLookupResponseDTO findByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        logger.debug("Finding {} users by id", distinct.size());
+
+        if (distinct.isEmpty()) {
+            return new UserLookupResponseDTO(List.of(), List.of());
+        }
+        return UserLookupResponseDTO.inRequestOrder(distinct, repository.findDtosByIdIn(distinct));
+    }
+
+    public UserResponseDTO findByEmail(String email) {
+        logger.debug("Finding user by email: {}", email);
+
+        return repository.findDtoByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException(email));
+    }
+
+    /**
+     * Case-insensitive search on name or email. {@code match} is {@code prefix}
+     * (default, btree-indexed) or {@code contains} (trigram-indexed, at least
+     * {@value SearchQuery#MIN_CONTAINS_LENGTH} characters).
+     */
+    public List<UserResponseDTO> search(String query, String match, int limit) {
+        SearchQuery search = SearchQuery.of(query, match, limit);
+        logger.debug("Searching users ({}) for: {}", match, search.getTerm());
+
+        PageRequest page = PageRequest.of(0, search.getSize());
+        return search.isContains()
+                ? repository.searchByContains(search.getPattern(), page)
+                : repository.searchByPrefix(search.getPattern(), page);
+    }
+
+    public List<UserResponseDTO> findAll() {
+        logger.debug("Fetching all users");
+
+        List<UserResponseDTO> users = repository.findAllDtos();
+
+        logger.debug("Found {} users", users.size());
+        return users;
+    }
+
+    /**
+     * Cheap validator for the whole collection, checked before {@link #findAll()} runs.
+     * It follows the outbox relay, so a write reaches it within
+     * {@code users.events.relay-interval-ms}.
+     */
+    public UsersVersion findVersion() {
+        return eventRepository.findUsersVersion().orElse(UsersVersion.INITIAL);
+    }
+
+    public UserPageResponseDTO findPage(Long after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+        logger.debug("Fetching users after id: {} (limit {})", cursor, size);
+
+        // Fetch one extra row to know whether another page exists without a count query
+        List<UserResponseDTO> rows = repository.findPageAfter(cursor, PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new UserPageResponseDTO(rows, null);
+        }
+
+        List<UserResponseDTO> items = rows.subList(0, size);
+        return new UserPageResponseDTO(items, items.get(size - 1).getId());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserResponseDTO> consumer) {
+        logger.debug("Streaming all users");
+
+        try (Stream<UserResponseDTO> users = repository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
+    /**
+     * Unconditional update, for clients that do not send If-Match.
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserResponseDTO update(Long id, UserRequestDTO request) {
+        logger.debug("Updating user with id: {}", id);
+
+        // Single UPDATE statement that also returns the bumped version: no SELECT, no entity
+        // load, no dirty check
+        LocalDateTime updatedAt = User.currentTimestamp();
+        Long version = writeOrConflict(request, () ->
+                repository.updateNameAndEmail(id, request.getName(), request.getEmail(), updatedAt))
+                .orElseThrow(() -> {
+                    logger.debug("Cannot update - user not found with id: {}", id);
+                    return new UserNotFoundException(id);
+                });
+
+        logger.debug("User updated with id: {} to version: {}", id, version);
+        eventRepository.save(UserEvent.updated(id, request.getName(), request.getEmail(), version));
+        return new UserResponseDTO(id, request.getName(), request.getEmail(), updatedAt, version);
+    }
+
+    /**
+     * Updates only if the user is still at {@code expectedVersion}, the version the client
+     * read (If-Match). Of two concurrent writers with the same version, exactly one succeeds;
+     * the other gets an {@link OptimisticLockingFailureException}.
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserResponseDTO update(Long id, UserRequestDTO request, long expectedVersion) {
+        logger.debug("Updating user with id: {} at version: {}", id, expectedVersion);
+
+        LocalDateTime updatedAt = User.currentTimestamp();
+        int updated = writeOrConflict(request, () -> repository.updateNameAndEmailIfVersion(
+                id, request.getName(), request.getEmail(), updatedAt, expectedVersion));
+
+        if (updated == 0) {
+            // Only a failed write pays for the lookup that tells "gone" from "changed"
+            if (repository.findVersionById(id).isEmpty()) {
+                logger.debug("Cannot update - user not found with id: {}", id);
+                throw new UserNotFoundException(id);
+            }
+            logger.debug("Cannot update - user {} is no longer at version {}", id, expectedVersion);
+            throw new OptimisticLockingFailureException(
+                    "User " + id + " was modified by another request; reload it and retry");
+        }
+
+        logger.debug("User updated with id: {} to version: {}", id, expectedVersion + 1);
+        eventRepository.save(UserEvent.updated(id, request.getName(), request.getEmail(), expectedVersion + 1));
+        return new UserResponseDTO(id, request.getName(), request.getEmail(), updatedAt, expectedVersion + 1);
+    }
+
+    private static <T> T writeOrConflict(UserRequestDTO request, Supplier<T> statement) {
+        try {
+            return statement.get();
+        } catch (DataIntegrityViolationException ex) {
+            logger.debug("Cannot update - email already exists: {}", request.getEmail());
+            throw new EmailAlreadyExistsException(request.getEmail());
+        }
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public void delete(Long id) {
+        logger.debug("Deleting user with id: {}", id);
+
+        int deleted = repository.deleteUserById(id);
+
+        if (deleted == 0) {
+            logger.debug("Cannot delete - user not found with id: {}", id);
+            throw new UserNotFoundException(id);
+        }
+
+        eventRepository.save(UserEvent.deleted(id));
+        logger.debug("User deleted successfully with id: {}", id);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package db.partitioning;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Step 2 of the move to the partitioned users table: copies the rows that existed before V11
+ * into users_partitioned, one id range per transaction, while the application keeps writing
+ * to users. Rows the mirror trigger already copied are left alone, and rows locked by a
+ * concurrent write are copied only once it commits, so a row deleted in the meantime is not
+ * brought back. Batch size: the {@code backfill_batch_size} placeholder (default 10000).
+ */
+public class V12__Backfill_partitioned_users extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V12__Backfill_partitioned_users.class);
+
+    private static final long DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final String COPY_RANGE = """
+            insert into users_partitioned (id, name, email, created_at, updated_at, version)
+            select id, name, email, created_at, updated_at, version
+            from users where id > ? and id <= ?
+            for share
+            on conflict (id) do nothing""";
+
+    /**
+     * Each batch commits on its own, so a large table never sits in one long transaction
+     * and the backfill can be resumed after a failure.
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        long batchSize = batchSize(context);
+        Connection connection = context.getConnection();
+        connection.setAutoCommit(true);
+
+        long min;
+        long max;
+        try (Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery("select coalesce(min(id), 0), coalesce(max(id), 0) from users")) {
+            range.next();
+            min = range.getLong(1);
+            max = range.getLong(2);
+        }
+
+        long copied = 0;
+        try (PreparedStatement copy = connection.prepareStatement(COPY_RANGE)) {
+            for (long from = min - 1; from < max; from += batchSize) {
+                copy.setLong(1, from);
+                copy.setLong(2, Math.min(from + batchSize, max));
+                copied += copy.executeUpdate();
+                logger.info("Backfilled users up to id {} of {} ({} rows copied)",
+                        Math.min(from + batchSize, max), max, copied);
+            }
+        }
+    }
+
+    private static long batchSize(Context context) {
+        String value = context.getConfiguration().getPlaceholders().get("backfill_batch_size");
+        return value == null ? DEFAULT_BATCH_SIZE : Long.parseLong(value);
+    }
+}
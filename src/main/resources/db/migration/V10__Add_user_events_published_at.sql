@@ -0,0 +1,4 @@
+-- When the relay gave the event its position. Published events only ever get later
+-- positions, so the latest position and its published_at are the Last-Modified of the
+-- whole users collection (GET /users), found with one probe of the position index.
+ALTER TABLE user_events ADD COLUMN published_at TIMESTAMP;
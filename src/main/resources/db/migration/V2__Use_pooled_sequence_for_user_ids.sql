@@ -0,0 +1,5 @@
+-- Hibernate allocates user ids from this sequence in blocks of 50 (pooled-lo optimizer),
+-- so inserts no longer need the IDENTITY round trip and can be sent as JDBC batches.
+-- The column default stays in place: rows inserted outside Hibernate still draw from the
+-- same sequence and can never collide with an id block already handed out.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
@@ -0,0 +1,11 @@
+-- Indexes for GET /users/search. Built CONCURRENTLY (see the .conf file next to this
+-- script) so large tables keep accepting writes while they are created.
+
+-- Prefix search: lower(col) LIKE 'abc%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_lower_prefix ON users (lower(name) text_pattern_ops);
+
+-- Contains search: lower(col) LIKE '%abc%'
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_lower_trgm ON users USING gin (lower(name) gin_trgm_ops);
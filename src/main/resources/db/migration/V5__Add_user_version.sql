@@ -0,0 +1,3 @@
+-- Optimistic-lock version for PUT /users/{id} with If-Match. Every write bumps it by one.
+-- A constant default is stored in the catalog, so existing rows are not rewritten.
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Transactional outbox for user changes. Rows are written in the same transaction as the
+-- change itself; the relay later stamps committed rows with a gap-free, increasing
+-- position, which is the offset consumers resume from (GET /users/changes?since=).
+CREATE TABLE user_events (
+                             id BIGSERIAL PRIMARY KEY,
+                             user_id BIGINT NOT NULL,
+                             type VARCHAR(16) NOT NULL,
+                             name VARCHAR(100),
+                             email VARCHAR(100),
+                             version BIGINT,
+                             occurred_at TIMESTAMP NOT NULL,
+                             position BIGINT UNIQUE
+);
+
+-- Ids come from the sequence one at a time (unlike users, see V2). A write to a user holds
+-- its row lock when it takes the id, so the events of one user get ids in commit order, and
+-- the relay publishes pending events in id order.
+-- The relay only ever scans rows that still wait for a position
+CREATE INDEX idx_user_events_pending ON user_events (id) WHERE position IS NULL;
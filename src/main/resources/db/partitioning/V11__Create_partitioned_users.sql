@@ -0,0 +1,85 @@
+-- Step 1 of the opt-in move to a hash-partitioned users table (see README, "Partitioned Users
+-- Table"). Versions 11 to 13 are reserved for db/partitioning; new db/migration scripts start at V14.
+--
+-- users_partitioned has the same columns as users, split into 16 partitions by hash(id), so
+-- vacuum and index maintenance work on 1/16 of the rows at a time. Ids keep coming from
+-- users_id_seq (pooled, see V2); hashing spreads consecutive ids over all partitions.
+CREATE TABLE users_partitioned (
+                                   id BIGINT NOT NULL DEFAULT nextval('users_id_seq'),
+                                   name VARCHAR(100) NOT NULL,
+                                   email VARCHAR(100) NOT NULL,
+                                   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                   version BIGINT NOT NULL DEFAULT 0,
+                                   PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE users_p%s PARTITION OF users_partitioned '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+-- Same secondary indexes as V3, created per partition while the table is still empty
+CREATE INDEX idx_users_partitioned_email_lower_prefix ON users_partitioned (lower(email) text_pattern_ops);
+CREATE INDEX idx_users_partitioned_name_lower_prefix ON users_partitioned (lower(name) text_pattern_ops);
+CREATE INDEX idx_users_partitioned_email_lower_trgm ON users_partitioned USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX idx_users_partitioned_name_lower_trgm ON users_partitioned USING gin (lower(name) gin_trgm_ops);
+
+-- A unique index on a partitioned table must include the partition key, so email uniqueness
+-- moves to this lookup table, itself partitioned by hash(email). Email lookups read one
+-- user_emails partition for the id, then one users partition.
+CREATE TABLE user_emails (
+                             email VARCHAR(100) NOT NULL,
+                             user_id BIGINT NOT NULL,
+                             PRIMARY KEY (email)
+) PARTITION BY HASH (email);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE user_emails_p%s PARTITION OF user_emails '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+-- Keeps user_emails in step with users_partitioned. A taken email fails the primary key
+-- with unique_violation, which the application already reports as 409.
+CREATE FUNCTION sync_user_email() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE user_emails SET email = NEW.email WHERE email = OLD.email;
+    ELSE
+        DELETE FROM user_emails WHERE email = OLD.email;
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_partitioned_sync_email
+    AFTER INSERT OR DELETE OR UPDATE OF email ON users_partitioned
+    FOR EACH ROW
+    EXECUTE FUNCTION sync_user_email();
+
+-- Until the swap in V13, the application keeps writing to users. Every change is mirrored
+-- into users_partitioned, so the backfill (V12) only has to copy rows that existed before.
+CREATE FUNCTION mirror_user_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM users_partitioned WHERE id = OLD.id;
+    ELSE
+        INSERT INTO users_partitioned (id, name, email, created_at, updated_at, version)
+        VALUES (NEW.id, NEW.name, NEW.email, NEW.created_at, NEW.updated_at, NEW.version)
+        ON CONFLICT (id) DO UPDATE SET name = excluded.name, email = excluded.email,
+                                       updated_at = excluded.updated_at, version = excluded.version;
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_mirror
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW
+    EXECUTE FUNCTION mirror_user_change();
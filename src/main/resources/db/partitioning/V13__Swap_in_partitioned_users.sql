@@ -0,0 +1,17 @@
+-- Step 3 of the move to the partitioned users table: swap the tables by name. Run it only
+-- once every instance runs with users.partitioned=true (see README). The lock is held for
+-- two renames, so writers wait milliseconds rather than for a copy.
+LOCK TABLE users IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER users_mirror ON users;
+DROP FUNCTION mirror_user_change();
+
+ALTER TABLE users RENAME TO users_unpartitioned;
+ALTER TABLE users_partitioned RENAME TO users;
+
+-- The sequence now belongs to the new table, so dropping the old one later keeps it
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+-- users_unpartitioned is kept for a rollback; drop it once the new table has been verified:
+--   ALTER TABLE users_unpartitioned ALTER COLUMN id DROP DEFAULT;
+--   DROP TABLE users_unpartitioned;
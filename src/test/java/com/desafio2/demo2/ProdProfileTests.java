@@ -0,0 +1,64 @@
+package com.desafio2.demo2;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the prod profile against H2, so a property that no longer binds fails the build
+ * instead of the first deployment. Only the connection settings are swapped out.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "users.events.relay-enabled=false"
+})
+@ActiveProfiles("prod")
+class ProdProfileTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldApplyThePoolSettings() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(10);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(Duration.ofSeconds(3).toMillis());
+        assertThat(hikari.getMaxLifetime()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        assertThat(hikari.getKeepaliveTime()).isEqualTo(Duration.ofMinutes(5).toMillis());
+        assertThat(hikari.isAutoCommit()).isFalse();
+        assertThat(hikari.getDataSourceProperties())
+                .containsEntry("reWriteBatchedInserts", "true")
+                .containsEntry("prepareThreshold", "5")
+                .containsEntry("preparedStatementCacheQueries", "512")
+                .containsEntry("preparedStatementCacheSizeMiB", "10");
+    }
+
+    @Test
+    void shouldApplyTheHibernateSettings() {
+        assertThat(entityManagerFactory.getProperties())
+                .containsEntry("hibernate.connection.provider_disables_autocommit", "true")
+                .containsEntry("hibernate.order_updates", "true")
+                .containsEntry("hibernate.jdbc.batch_size", "100")
+                .containsEntry("hibernate.query.in_clause_parameter_padding", "true");
+    }
+}
@@ -0,0 +1,62 @@
+package com.desafio2.demo2.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPermitDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void shouldReleasePermitWhenConnectionIsClosed() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(10), 10);
+
+        Connection first = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void shouldTimeOutWhenAllPermitsAreTaken() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(10), 10);
+
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("Timed out");
+    }
+
+    @Test
+    void shouldReturnPermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(10), 10);
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.desafio2.demo2.config;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JdbcBatchingCheck.class)
+@ActiveProfiles("test")
+class JdbcBatchingCheckTest {
+
+    @Autowired
+    private JdbcBatchingCheck check;
+
+    @Test
+    void shouldAcceptTheShippedMappingAndSettings() {
+        assertThat(check.findProblems()).isEmpty();
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+            "spring.jpa.properties.hibernate.order_inserts=false"
+    })
+    class WhenBatchingIsDisabled {
+
+        @Autowired
+        private JdbcBatchingCheck check;
+
+        @Test
+        void shouldReportEachSetting() {
+            assertThat(check.findProblems())
+                    .hasSize(2)
+                    .anySatisfy(problem -> assertThat(problem).contains("batch_size is 1"))
+                    .anySatisfy(problem -> assertThat(problem).contains("order_inserts"));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.desafio2.demo2.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private FlakyDataSource replica;
+    private ReadWriteRoutingDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica = new FlakyDataSource(database("replica"));
+        dataSource = new ReadWriteRoutingDataSource(primary, List.of(replica), Duration.ZERO);
+
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRoutingDataSource.pinToPrimary(false);
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplica() {
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldSendWritesToPrimary() {
+        assertThat(readWriteNode()).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldKeepPinnedReadsOnPrimary() {
+        ReadWriteRoutingDataSource.pinToPrimary(true);
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldRunSingleReadOnPrimary() {
+        assertThat(ReadWriteRoutingDataSource.onPrimary(this::readOnlyNode)).isEqualTo("primary");
+
+        assertThat(ReadWriteRoutingDataSource.isPinnedToPrimary()).isFalse();
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldKeepOuterPinAfterSingleReadOnPrimary() {
+        ReadWriteRoutingDataSource.pinToPrimary(true);
+
+        ReadWriteRoutingDataSource.onPrimary(this::readOnlyNode);
+
+        assertThat(ReadWriteRoutingDataSource.isPinnedToPrimary()).isTrue();
+    }
+
+    @Test
+    void shouldFallBackToPrimaryUntilReplicaPassesHealthCheck() {
+        replica.down = true;
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        assertThat(dataSource.getHealthyReplicaCount()).isZero();
+
+        replica.down = false;
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        dataSource.checkReplicas();
+        assertThat(dataSource.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbc.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource database = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate setup = new JdbcTemplate(database);
+        setup.execute("create table if not exists node (name varchar(20))");
+        setup.update("delete from node");
+        setup.update("insert into node (name) values (?)", name);
+        return database;
+    }
+
+    private static class FlakyDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.desafio2.demo2.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingConfigTest {
+
+    @Test
+    void shouldTuneReplicaPoolsLikeThePrimary() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("users.replicas.urls", "jdbc:h2:mem:replica-a, jdbc:h2:mem:replica-b")
+                .withProperty("users.replicas.pool-size", "4")
+                .withProperty("spring.datasource.username", "sa")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "20")
+                .withProperty("spring.datasource.hikari.auto-commit", "false")
+                .withProperty("spring.datasource.hikari.connection-timeout", "3000")
+                .withProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", "5");
+
+        List<DataSource> replicas = ReplicaRoutingConfig.replicas(environment);
+
+        assertThat(replicas).hasSize(2);
+        HikariDataSource replica = (HikariDataSource) replicas.get(1);
+        assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:h2:mem:replica-b");
+        assertThat(replica.getUsername()).isEqualTo("sa");
+        assertThat(replica.isReadOnly()).isTrue();
+        assertThat(replica.isAutoCommit()).isFalse();
+        assertThat(replica.getConnectionTimeout()).isEqualTo(3000);
+        assertThat(replica.getMaximumPoolSize()).isEqualTo(4);
+        assertThat(replica.getDataSourceProperties()).containsEntry("prepareThreshold", "5");
+        replicas.forEach(pool -> ((HikariDataSource) pool).close());
+    }
+}
@@ -0,0 +1,46 @@
+package com.desafio2.demo2.config;
+
+import com.desafio2.demo2.service.UserChangeFeed;
+import com.desafio2.demo2.service.UserEventRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SchedulingConfigTest {
+
+    private final UserEventRelay relay = mock(UserEventRelay.class);
+    private final UserChangeFeed feed = mock(UserChangeFeed.class);
+
+    @Test
+    void shouldStillPollTheFeedWhenTheRelayIsDisabled() {
+        List<IntervalTask> tasks = tasks(false);
+
+        assertThat(tasks).singleElement()
+                .extracting(IntervalTask::getIntervalDuration)
+                .isEqualTo(Duration.ofMillis(250));
+        tasks.get(0).getRunnable().run();
+
+        verify(feed).poll();
+        verifyNoInteractions(relay);
+    }
+
+    @Test
+    void shouldRelayAndPollWhenTheRelayIsEnabled() {
+        tasks(true).forEach(task -> task.getRunnable().run());
+
+        verify(relay).relay();
+        verify(feed).poll();
+    }
+
+    private List<IntervalTask> tasks(boolean relayEnabled) {
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+        new SchedulingConfig(relay, feed, relayEnabled, 250).configureTasks(registrar);
+        return registrar.getFixedDelayTaskList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.desafio2.demo2.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenApiDocumentControllerTest {
+
+    private static final byte[] DOCUMENT = "{\"openapi\":\"3.0.1\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldServeTheSameBytesWithAnETag() throws IOException {
+        OpenApiDocumentController controller = new OpenApiDocumentController(new ByteArrayResource(DOCUMENT));
+
+        ResponseEntity<byte[]> first = controller.document(request());
+        ResponseEntity<byte[]> second = controller.document(request());
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).isSameAs(second.getBody()).isEqualTo(DOCUMENT);
+        assertThat(first.getHeaders().getETag()).isNotBlank();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForMatchingETag() throws IOException {
+        OpenApiDocumentController controller = new OpenApiDocumentController(new ByteArrayResource(DOCUMENT));
+        String eTag = controller.document(request()).getHeaders().getETag();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v3/api-docs");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+
+        assertThat(controller.document(new ServletWebRequest(request, response))).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenDocumentWasNotBuilt() throws IOException {
+        OpenApiDocumentController controller =
+                new OpenApiDocumentController(new ClassPathResource("openapi/missing.json"));
+
+        assertThat(controller.document(request()).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/v3/api-docs"), new MockHttpServletResponse());
+    }
+}
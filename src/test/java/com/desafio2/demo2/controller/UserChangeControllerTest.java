@@ -0,0 +1,74 @@
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.dto.UserChangesResponseDTO;
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.service.UserChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserChangeController.class)
+@ActiveProfiles("test")
+class UserChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserChangeFeed feed;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
+    @Test
+    void shouldReturnChangesAfterPosition() throws Exception {
+        UserEventDTO event = new UserEventDTO(8L, UserEvent.Type.UPDATED, 3L, "Ana", "ana@email.com", 2L,
+                LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(feed.read(7L, 100)).thenReturn(new UserChangesResponseDTO(List.of(event), 8L));
+
+        mockMvc.perform(get("/users/changes").param("since", "7").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].position", is(8)))
+                .andExpect(jsonPath("$.events[0].type", is("UPDATED")))
+                .andExpect(jsonPath("$.events[0].userId", is(3)))
+                .andExpect(jsonPath("$.next", is(8)));
+    }
+
+    @Test
+    void shouldResumeStreamFromLastEventId() throws Exception {
+        when(feed.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/users/changes")
+                        .param("since", "2")
+                        .header("Last-Event-ID", "5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(feed).subscribe(5L);
+    }
+
+    @Test
+    void shouldStartStreamFromSinceWithoutLastEventId() throws Exception {
+        when(feed.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/users/changes").param("since", "2").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(feed).subscribe(2L);
+    }
+}
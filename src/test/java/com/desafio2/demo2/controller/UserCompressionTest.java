@@ -0,0 +1,92 @@
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compression happens in Tomcat, after the controller, so MockMvc never sees it. These
+ * requests go through the embedded server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserCompressionTest {
+
+    private static final int USERS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        repository.saveAll(IntStream.range(0, USERS)
+                .mapToObj(i -> new User("User " + i, "user" + i + "@email.com"))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldGzipTheUserList() throws Exception {
+        HttpResponse<InputStream> response = get("/users", "application/json");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).contains("gzip");
+        assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(eTag -> assertThat(eTag).startsWith("W/"));
+        assertThat(readGzipped(response)).hasSize(USERS);
+    }
+
+    @Test
+    void shouldGzipTheUserListAsCbor() throws Exception {
+        HttpResponse<InputStream> response = get("/users", "application/cbor");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        assertThat(response.headers().firstValue("Content-Encoding")).contains("gzip");
+        response.body().close();
+    }
+
+    private HttpResponse<InputStream> get(String path, String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("Accept-Encoding", "gzip")
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private JsonNode readGzipped(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            return objectMapper.readTree(body);
+        }
+    }
+}
@@ -1,173 +1,588 @@
-package com.desafio2.demo2.controller;
-
-import com.desafio2.demo2.dto.UserRequestDTO;
-import com.desafio2.demo2.dto.UserResponseDTO;
-import com.desafio2.demo2.exception.UserNotFoundException;
-import com.desafio2.demo2.service.UserService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Import;
-import org.springframework.http.MediaType;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.web.servlet.MockMvc;
-
-import java.util.List;
-
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
-import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.containsString;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
-
-@WebMvcTest(UserController.class)
-@Import(ValidationAutoConfiguration.class)
-@ActiveProfiles("test")
-class UserControllerTest {
-
-    @Autowired
-    private MockMvc mockMvc;
-
-    @MockBean
-    private UserService service;
-
-    @Autowired
-    private ObjectMapper objectMapper;
-
-    @Test
-    void shouldCreateUser() throws Exception {
-        UserRequestDTO request = new UserRequestDTO();
-        request.setName("Marcos");
-        request.setEmail("marcos@email.com");
-
-        UserResponseDTO response = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
-
-        when(service.create(any(UserRequestDTO.class))).thenReturn(response);
-
-        mockMvc.perform(post("/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.name", is("Marcos")));
-    }
-
-    @Test
-    void shouldUpdateUser() throws Exception {
-        Long userId = 1L;
-        UserRequestDTO updateRequest = new UserRequestDTO("João Updated", "joao.updated@email.com");
-        UserResponseDTO response = new UserResponseDTO(userId, "João Updated", "joao.updated@email.com");
-
-        when(service.update(eq(userId), any(UserRequestDTO.class))).thenReturn(response);
-
-        mockMvc.perform(put("/users/{id}", userId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateRequest)))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.name", is("João Updated")))
-                .andExpect(jsonPath("$.email", is("joao.updated@email.com")));
-
-        verify(service).update(eq(userId), any(UserRequestDTO.class));
-    }
-
-    @Test
-    void shouldReturn404WhenUpdatingNonExistent() throws Exception {
-        Long userId = 99L;
-        UserRequestDTO updateRequest = new UserRequestDTO("Test", "test@email.com");
-
-        when(service.update(eq(99L), any(UserRequestDTO.class)))
-                .thenThrow(new UserNotFoundException(99L));
-
-        mockMvc.perform(put("/users/{id}", userId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateRequest)))
-                .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.status", is(404)))
-                .andExpect(jsonPath("$.error", containsString("not found")));
-    }
-
-    @Test
-    void shouldReturnUserById() throws Exception {
-        UserResponseDTO response = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
-
-        when(service.findById(1L)).thenReturn(response);
-
-        mockMvc.perform(get("/users/1"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.name", is("Marcos")));
-    }
-
-    @Test
-    void shouldReturnAllUsers() throws Exception {
-        UserResponseDTO user1 = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
-        UserResponseDTO user2 = new UserResponseDTO(2L, "Ana", "ana@email.com");
-
-        when(service.findAll()).thenReturn(List.of(user1, user2));
-
-        mockMvc.perform(get("/users"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].name", is("Marcos")))
-                .andExpect(jsonPath("$[1].id", is(2)))
-                .andExpect(jsonPath("$[1].name", is("Ana")));
-    }
-
-    @Test
-    void shouldReturn404WhenUserNotFound() throws Exception {
-        when(service.findById(99L)).thenThrow(new UserNotFoundException(99L));
-
-        mockMvc.perform(get("/users/99"))
-                .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.status", is(404)))
-                .andExpect(jsonPath("$.error", containsString("not found")));
-    }
-
-    @Test
-    void shouldDeleteUser() throws Exception {
-        doNothing().when(service).delete(1L);
-
-        mockMvc.perform(delete("/users/1"))
-                .andExpect(status().isNoContent());
-
-        verify(service).delete(1L);
-    }
-
-    @Test
-    void shouldReturn400WhenNameIsEmpty() throws Exception {
-        UserRequestDTO invalid = new UserRequestDTO("", "valid@email.com");
-
-        mockMvc.perform(post("/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalid)))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("name")));
-    }
-
-    @Test
-    void shouldReturn400WhenEmailIsInvalid() throws Exception {
-        UserRequestDTO invalid = new UserRequestDTO("John", "not-email");
-
-        mockMvc.perform(post("/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalid)))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("email")));
-    }
-
-    @Test
-    void shouldReturn400WhenEmailIsEmpty() throws Exception {
-        UserRequestDTO invalid = new UserRequestDTO("John", "");
-
-        mockMvc.perform(post("/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalid)))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().string(containsString("email")));
-    }
-}
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.config.SerializationConfig;
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.BatchItemResultDTO;
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.repository.UpsertedUser;
+import com.desafio2.demo2.repository.UsersVersion;
+import com.desafio2.demo2.service.UserBatchService;
+import com.desafio2.demo2.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserController.class)
+@Import({ValidationAutoConfiguration.class, SerializationConfig.class})
+@ActiveProfiles("test")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService service;
+
+    @MockBean
+    private UserBatchService batchService;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldCreateUser() throws Exception {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("Marcos");
+        request.setEmail("marcos@email.com");
+
+        UserResponseDTO response = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
+
+        when(service.create(any(UserRequestDTO.class))).thenReturn(response);
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.name", is("Marcos")));
+    }
+
+    @Test
+    void shouldReturn409WhenEmailAlreadyExists() throws Exception {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenThrow(new EmailAlreadyExistsException("marcos@email.com"));
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserRequestDTO("Marcos", "marcos@email.com"))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is(409)))
+                .andExpect(jsonPath("$.error", containsString("marcos@email.com")));
+
+        verify(errorMetrics).conflict();
+    }
+
+    @Test
+    void shouldReturn201WhenUpsertInserts() throws Exception {
+        UpsertedUser row = upserted(1L, "Marcos", "marcos@email.com", true);
+        when(service.upsert(any(UserRequestDTO.class))).thenReturn(row);
+
+        mockMvc.perform(post("/users").param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserRequestDTO("Marcos", "marcos@email.com"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)));
+
+        verify(service, never()).create(any());
+    }
+
+    @Test
+    void shouldReturn200WhenUpsertFindsExistingEmail() throws Exception {
+        UpsertedUser row = upserted(1L, "Marcos Dias", "marcos@email.com", false);
+        when(service.upsert(any(UserRequestDTO.class))).thenReturn(row);
+
+        mockMvc.perform(post("/users").param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserRequestDTO("Marcos Dias", "marcos@email.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Marcos Dias")));
+    }
+
+    @Test
+    void shouldUpdateUser() throws Exception {
+        Long userId = 1L;
+        UserRequestDTO updateRequest = new UserRequestDTO("João Updated", "joao.updated@email.com");
+        UserResponseDTO response = new UserResponseDTO(userId, "João Updated", "joao.updated@email.com");
+
+        when(service.update(eq(userId), any(UserRequestDTO.class))).thenReturn(response);
+
+        mockMvc.perform(put("/users/{id}", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.name", is("João Updated")))
+                .andExpect(jsonPath("$.email", is("joao.updated@email.com")));
+
+        verify(service).update(eq(userId), any(UserRequestDTO.class));
+    }
+
+    @Test
+    void shouldUpdateAtVersionFromIfMatch() throws Exception {
+        UserRequestDTO request = new UserRequestDTO("Marcos Dias", "marcos@email.com");
+        when(service.update(eq(1L), any(UserRequestDTO.class), eq(3L)))
+                .thenReturn(new UserResponseDTO(1L, "Marcos Dias", "marcos@email.com", null, 4L));
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-4\""));
+
+        verify(service, never()).update(any(), any());
+    }
+
+    @Test
+    void shouldAcceptTheWeakETagInIfMatch() throws Exception {
+        UserRequestDTO request = new UserRequestDTO("Marcos Dias", "marcos@email.com");
+        when(service.update(eq(1L), any(UserRequestDTO.class), eq(3L)))
+                .thenReturn(new UserResponseDTO(1L, "Marcos Dias", "marcos@email.com", null, 4L));
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header("If-Match", "W/\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-4\""));
+    }
+
+    @Test
+    void shouldReturn409WhenIfMatchIsStale() throws Exception {
+        UserRequestDTO request = new UserRequestDTO("Marcos Dias", "marcos@email.com");
+        when(service.update(eq(1L), any(UserRequestDTO.class), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("User 1 was modified by another request"));
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is(409)));
+
+        verify(errorMetrics).conflict();
+    }
+
+    @Test
+    void shouldReturn409WhenIfMatchNamesAnotherUser() throws Exception {
+        UserRequestDTO request = new UserRequestDTO("Marcos Dias", "marcos@email.com");
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header("If-Match", "\"2-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldReturn404WhenUpdatingNonExistent() throws Exception {
+        Long userId = 99L;
+        UserRequestDTO updateRequest = new UserRequestDTO("Test", "test@email.com");
+
+        when(service.update(eq(99L), any(UserRequestDTO.class)))
+                .thenThrow(new UserNotFoundException(99L));
+
+        mockMvc.perform(put("/users/{id}", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.error", containsString("not found")));
+    }
+
+    @Test
+    void shouldReturnUserById() throws Exception {
+        UserResponseDTO response = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
+
+        when(service.findById(1L)).thenReturn(response);
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.name", is("Marcos")));
+    }
+
+    @Test
+    void shouldSendValidatorsForUser() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(service.findById(1L)).thenReturn(new UserResponseDTO(1L, "Marcos", "marcos@email.com", updatedAt, 3L));
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(header().string("Last-Modified", "Mon, 01 Jan 2024 10:00:00 GMT"))
+                .andExpect(jsonPath("$.updatedAt").doesNotExist());
+    }
+
+    @Test
+    void shouldReturn304WhenUserIsUnchanged() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(service.findById(1L)).thenReturn(new UserResponseDTO(1L, "Marcos", "marcos@email.com", updatedAt, 3L));
+
+        mockMvc.perform(get("/users/1").header("If-None-Match", "W/\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldReturn304ForUnchangedCollectionWithoutLoadingIt() throws Exception {
+        UsersVersion version = version(2, LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(service.findVersion()).thenReturn(version);
+
+        mockMvc.perform(get("/users").header("If-None-Match", "W/\"users-2\""))
+                .andExpect(status().isNotModified());
+
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldReturnCollectionWhenVersionChanged() throws Exception {
+        UsersVersion version = version(3, LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(service.findVersion()).thenReturn(version);
+        when(service.findAll()).thenReturn(List.of());
+
+        mockMvc.perform(get("/users").header("If-None-Match", "\"users-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"users-3\""));
+    }
+
+    @Test
+    void shouldReturnAllUsers() throws Exception {
+        UserResponseDTO user1 = new UserResponseDTO(1L, "Marcos", "marcos@email.com");
+        UserResponseDTO user2 = new UserResponseDTO(2L, "Ana", "ana@email.com");
+
+        UsersVersion version = version(2, null);
+        when(service.findVersion()).thenReturn(version);
+        when(service.findAll()).thenReturn(List.of(user1, user2));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Marcos")))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].name", is("Ana")));
+    }
+
+    @Test
+    void shouldReturnAllUsersAsCborWhenAccepted() throws Exception {
+        UsersVersion version = version(2, null);
+        when(service.findVersion()).thenReturn(version);
+        when(service.findAll()).thenReturn(List.of(
+                new UserResponseDTO(1L, "Marcos", "marcos@email.com"),
+                new UserResponseDTO(2L, "Ana", "ana@email.com")));
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn();
+
+        JsonNode users = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertThat(users).hasSize(2);
+        assertThat(users.get(0).get("name").asText()).isEqualTo("Marcos");
+        assertThat(users.get(1).get("email").asText()).isEqualTo("ana@email.com");
+    }
+
+    @Test
+    void shouldReturn404WhenUserNotFound() throws Exception {
+        when(service.findById(99L)).thenThrow(new UserNotFoundException(99L));
+
+        mockMvc.perform(get("/users/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.error", containsString("not found")));
+
+        verify(errorMetrics).userNotFound();
+    }
+
+    @Test
+    void shouldDeleteUser() throws Exception {
+        doNothing().when(service).delete(1L);
+
+        mockMvc.perform(delete("/users/1"))
+                .andExpect(status().isNoContent());
+
+        verify(service).delete(1L);
+    }
+
+    @Test
+    void shouldReturn400WhenNameIsEmpty() throws Exception {
+        UserRequestDTO invalid = new UserRequestDTO("", "valid@email.com");
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("name")));
+
+        verify(errorMetrics).validationFailed("name");
+    }
+
+    @Test
+    void shouldReturn400WhenEmailIsInvalid() throws Exception {
+        UserRequestDTO invalid = new UserRequestDTO("John", "not-email");
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("email")));
+    }
+
+    @Test
+    void shouldReturnEveryFieldErrorInOneResponse() throws Exception {
+        UserRequestDTO invalid = new UserRequestDTO("", "not-email");
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("name: ")))
+                .andExpect(jsonPath("$.error", containsString("email: ")))
+                .andExpect(jsonPath("$.error", containsString("; ")));
+
+        verify(errorMetrics).validationFailed("name");
+        verify(errorMetrics).validationFailed("email");
+    }
+
+    @Test
+    void shouldReturn400WhenEmailIsEmpty() throws Exception {
+        UserRequestDTO invalid = new UserRequestDTO("John", "");
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("email")));
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursor() throws Exception {
+        UserPageResponseDTO page = new UserPageResponseDTO(
+                List.of(new UserResponseDTO(11L, "Marcos", "marcos@email.com")), 11L);
+
+        when(service.findPage(10L, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/users").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(11)))
+                .andExpect(jsonPath("$.nextCursor", is(11)));
+    }
+
+    @Test
+    void shouldReturnFirstPageWhenOnlyLimitIsGiven() throws Exception {
+        when(service.findPage(null, 50)).thenReturn(new UserPageResponseDTO(List.of(), null));
+
+        mockMvc.perform(get("/users").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldFindManyUsersByIds() throws Exception {
+        when(service.findByIds(List.of(3L, 1L, 9L))).thenReturn(new UserLookupResponseDTO(
+                List.of(new UserResponseDTO(3L, "Ana", "ana@email.com", null, 2L),
+                        new UserResponseDTO(1L, "Marcos", "marcos@email.com", null, 0L)),
+                List.of(9L)));
+
+        mockMvc.perform(get("/users").param("ids", "3,1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id", is(3)))
+                .andExpect(jsonPath("$.users[1].id", is(1)))
+                .andExpect(jsonPath("$.missing[0]", is(9)))
+                .andExpect(jsonPath("$.versions['3']", is(2)))
+                .andExpect(jsonPath("$.versions['1']", is(0)));
+
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldReturn400WhenLookingUpTooManyIds() throws Exception {
+        String ids = IntStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/users").param("ids", ids))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("100")));
+
+        verify(service, never()).findByIds(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamUsersAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new UserResponseDTO(1L, "Marcos", "marcos@email.com"));
+            consumer.accept(new UserResponseDTO(2L, "Ana", "ana@email.com"));
+            return null;
+        }).when(service).streamAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"name\":\"Marcos\",\"email\":\"marcos@email.com\"}\n"
+                                + "{\"id\":2,\"name\":\"Ana\",\"email\":\"ana@email.com\"}\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamUsersAsCsv() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new UserResponseDTO(1L, "Marcos", "marcos@email.com"));
+            consumer.accept(new UserResponseDTO(2L, "Souza, Ana", "ana@email.com"));
+            return null;
+        }).when(service).streamAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/users/stream").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(
+                        "id,name,email\n1,Marcos,marcos@email.com\n2,\"Souza, Ana\",ana@email.com\n"));
+    }
+
+    @Test
+    void shouldCreateUsersInBatchFromJsonArray() throws Exception {
+        BatchCreateResponseDTO response = new BatchCreateResponseDTO(List.of(
+                BatchItemResultDTO.created(0, new UserResponseDTO(1L, "Marcos", "marcos@email.com")),
+                BatchItemResultDTO.invalid(1, "email: Email must be valid")));
+
+        when(batchService.createAll(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new UserRequestDTO("Marcos", "marcos@email.com"),
+                                new UserRequestDTO("Ana", "not-email")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].user.id", is(1)))
+                .andExpect(jsonPath("$.results[1].status", is("INVALID")));
+    }
+
+    @Test
+    void shouldCreateUsersInBatchFromNdjson() throws Exception {
+        when(batchService.getMaxItems()).thenReturn(10);
+        when(batchService.createAll(anyList())).thenReturn(new BatchCreateResponseDTO(List.of()));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Marcos\",\"email\":\"marcos@email.com\"}\n"
+                                + "{\"name\":\"Ana\",\"email\":\"ana@email.com\"}\n"))
+                .andExpect(status().isOk());
+
+        verify(batchService).createAll(argThat(list -> list.size() == 2
+                && list.get(1).getEmail().equals("ana@email.com")));
+    }
+
+    @Test
+    void shouldReturn413WhenNdjsonBatchExceedsLimit() throws Exception {
+        when(batchService.getMaxItems()).thenReturn(1);
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Marcos\",\"email\":\"marcos@email.com\"}\n"
+                                + "{\"name\":\"Ana\",\"email\":\"ana@email.com\"}\n"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status", is(413)));
+
+        verify(batchService, never()).createAll(anyList());
+    }
+
+    @Test
+    void shouldFindUserByEmail() throws Exception {
+        when(service.findByEmail("marcos@email.com"))
+                .thenReturn(new UserResponseDTO(1L, "Marcos", "marcos@email.com"));
+
+        mockMvc.perform(get("/users").param("email", "marcos@email.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)));
+
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldReturn404WhenEmailNotFound() throws Exception {
+        when(service.findByEmail("nobody@email.com")).thenThrow(new UserNotFoundException("nobody@email.com"));
+
+        mockMvc.perform(get("/users").param("email", "nobody@email.com"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", containsString("nobody@email.com")));
+    }
+
+    @Test
+    void shouldSearchUsers() throws Exception {
+        when(service.search("mar", "contains", 5))
+                .thenReturn(List.of(new UserResponseDTO(1L, "Marcos", "marcos@email.com")));
+
+        mockMvc.perform(get("/users/search").param("q", "mar").param("match", "contains").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("Marcos")));
+    }
+
+    @Test
+    void shouldReturn400ForInvalidSearch() throws Exception {
+        when(service.search("a", "fuzzy", 20)).thenThrow(new BadRequestException("Unknown match mode: fuzzy"));
+
+        mockMvc.perform(get("/users/search").param("q", "a").param("match", "fuzzy"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("fuzzy")));
+    }
+
+    private static UpsertedUser upserted(Long id, String name, String email, boolean inserted) {
+        UpsertedUser row = mock(UpsertedUser.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getName()).thenReturn(name);
+        when(row.getEmail()).thenReturn(email);
+        when(row.getInserted()).thenReturn(inserted);
+        return row;
+    }
+
+    private static UsersVersion version(long position, LocalDateTime lastModified) {
+        UsersVersion version = mock(UsersVersion.class);
+        when(version.getPosition()).thenReturn(position);
+        when(version.getLastModified()).thenReturn(lastModified);
+        return version;
+    }
+}
@@ -0,0 +1,78 @@
+package com.desafio2.demo2.controller;
+
+import com.desafio2.demo2.dto.ImportErrorDTO;
+import com.desafio2.demo2.dto.ImportProgressDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserImportController.class)
+@ActiveProfiles("test")
+class UserImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserImportService importService;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
+    @Test
+    void shouldStreamLineErrorsAndProgressAsNdjson() throws Exception {
+        when(importService.importUsers(any(), eq(UserImportService.Format.CSV), any())).thenAnswer(invocation -> {
+            UserImportService.Listener listener = invocation.getArgument(2);
+            listener.onError(new ImportErrorDTO(3, "email: Email must be valid"));
+            ImportProgressDTO done = new ImportProgressDTO(2, 1, 1, true);
+            listener.onProgress(done);
+            return done;
+        });
+
+        mockMvc.perform(post("/users/import")
+                        .contentType("text/csv")
+                        .content("name,email\nAna,ana@email.com\nBia,not-an-email\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"line\":3,\"error\":\"email: Email must be valid\"}\n"
+                                + "{\"processed\":2,\"imported\":1,\"failed\":1,\"done\":true}\n"));
+    }
+
+    @Test
+    void shouldReturn400ForCsvWithoutRequiredColumns() throws Exception {
+        when(importService.importUsers(any(), eq(UserImportService.Format.CSV), any()))
+                .thenThrow(new BadRequestException("CSV header must name the name and email columns"));
+
+        mockMvc.perform(post("/users/import")
+                        .contentType("text/csv")
+                        .content("id\n1\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReadNdjsonUploads() throws Exception {
+        when(importService.importUsers(any(), eq(UserImportService.Format.NDJSON), any()))
+                .thenReturn(new ImportProgressDTO(0, 0, 0, true));
+
+        mockMvc.perform(post("/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Ana\",\"email\":\"ana@email.com\"}\n"))
+                .andExpect(status().isOk());
+
+        verify(importService).importUsers(any(), eq(UserImportService.Format.NDJSON), any());
+    }
+}
@@ -0,0 +1,47 @@
+package com.desafio2.demo2.exception;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ErrorMetrics metrics = new ErrorMetrics(registry);
+
+    @Test
+    void shouldCountNotFoundResponses() {
+        metrics.userNotFound();
+        metrics.userNotFound();
+
+        assertThat(registry.get("users.not.found").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountConflicts() {
+        metrics.conflict();
+
+        assertThat(registry.get("users.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountValidationFailuresPerField() {
+        metrics.validationFailed("email");
+        metrics.validationFailed("email");
+        metrics.validationFailed("name");
+
+        assertThat(registry.get("users.validation.failures").tag("field", "email").counter().count()).isEqualTo(2);
+        assertThat(registry.get("users.validation.failures").tag("field", "name").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountRejectedRequestsPerReason() {
+        metrics.requestRejected("rate");
+        metrics.requestRejected("concurrency");
+        metrics.requestRejected("rate");
+
+        assertThat(registry.get("users.requests.rejected").tag("reason", "rate").counter().count()).isEqualTo(2);
+        assertThat(registry.get("users.requests.rejected").tag("reason", "concurrency").counter().count()).isEqualTo(1);
+    }
+}
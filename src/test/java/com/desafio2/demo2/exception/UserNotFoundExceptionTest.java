@@ -0,0 +1,28 @@
+package com.desafio2.demo2.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserNotFoundExceptionTest {
+
+    @Test
+    void shouldNotCaptureStackTrace() {
+        UserNotFoundException ex = new UserNotFoundException(42L);
+
+        assertThat(ex.getStackTrace()).isEmpty();
+        assertThat(ex.getSuppressed()).isEmpty();
+    }
+
+    @Test
+    void shouldDescribeMissingIdOrEmail() {
+        assertThat(new UserNotFoundException(42L)).hasMessage("User not found with id: 42");
+        assertThat(new UserNotFoundException("ana@email.com")).hasMessage("User not found with email: ana@email.com");
+    }
+
+    @Test
+    void shouldKeepOtherExpectedErrorsStackless() {
+        assertThat(new EmailAlreadyExistsException("ana@email.com").getStackTrace()).isEmpty();
+        assertThat(new BadRequestException("bad").getStackTrace()).isEmpty();
+    }
+}
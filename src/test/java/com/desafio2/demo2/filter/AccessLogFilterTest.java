@@ -0,0 +1,137 @@
+package com.desafio2.demo2.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogFilterTest {
+
+    private final Logger accessLog = (Logger) LoggerFactory.getLogger("access");
+    private final ListAppender<ILoggingEvent> lines = new ListAppender<>();
+    private Level previousLevel;
+
+    @BeforeEach
+    void captureAccessLog() {
+        previousLevel = accessLog.getLevel();
+        accessLog.setLevel(Level.INFO);
+        lines.start();
+        accessLog.addAppender(lines);
+    }
+
+    @AfterEach
+    void restoreAccessLog() {
+        accessLog.detachAppender(lines);
+        accessLog.setLevel(previousLevel);
+    }
+
+    @Test
+    void shouldLogSampledRequests() throws Exception {
+        new AccessLogFilter(1.0, Duration.ofMinutes(1))
+                .doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(messages()).singleElement().asString()
+                .contains("method=GET", "uri=/users/1", "status=200");
+    }
+
+    @Test
+    void shouldSkipRequestsOutsideTheSample() throws Exception {
+        new AccessLogFilter(0.0, Duration.ofMinutes(1))
+                .doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(messages()).isEmpty();
+    }
+
+    @Test
+    void shouldAlwaysLogSlowRequestsAndServerErrors() throws Exception {
+        new AccessLogFilter(0.0, Duration.ZERO)
+                .doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse failed = new MockHttpServletResponse();
+        failed.setStatus(503);
+        new AccessLogFilter(0.0, Duration.ofMinutes(1))
+                .doFilter(new MockHttpServletRequest("POST", "/users"), failed, new MockFilterChain());
+
+        assertThat(messages()).hasSize(2);
+        assertThat(messages().get(1)).contains("status=503");
+    }
+
+    @Test
+    void shouldLogAsyncResponsesWhenTheyComplete() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AccessLogFilter(1.0, Duration.ofMinutes(1)).doFilter(request, response, startsAsync());
+        assertThat(messages()).isEmpty();
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(messages()).singleElement().asString()
+                .contains("uri=/users/stream")
+                .doesNotContain("async=");
+    }
+
+    @Test
+    void shouldAlwaysLogAsyncTimeoutsOnce() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AccessLogFilter(0.0, Duration.ofMinutes(1)).doFilter(request, response, startsAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext, request, response));
+        }
+        asyncContext.complete();
+
+        assertThat(messages()).singleElement().asString().contains("async=timeout");
+    }
+
+    @Test
+    void shouldAlwaysLogAsyncErrors() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AccessLogFilter(0.0, Duration.ofMinutes(1)).doFilter(request, response, startsAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, request, response, new IOException("Broken pipe")));
+        }
+
+        assertThat(messages()).singleElement().asString().contains("async=error:IOException");
+    }
+
+    private List<String> messages() {
+        return lines.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private static MockHttpServletRequest asyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/stream");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static MockFilterChain startsAsync() {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                request.startAsync(request, response);
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.desafio2.demo2.filter;
+
+import com.desafio2.demo2.config.ReadWriteRoutingDataSource;
+import com.desafio2.demo2.limit.ClientIdentity;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1),
+            new ClientIdentity("X-Client-Id", "127.0.0.1"));
+
+    @Test
+    void shouldNotPinClientsThatHaveNotWritten() throws Exception {
+        assertThat(pinnedDuring(request("GET", "ana"))).isFalse();
+    }
+
+    @Test
+    void shouldPinReadsAfterTheClientsOwnWrite() throws Exception {
+        assertThat(pinnedDuring(request("POST", "ana"))).isFalse();
+
+        assertThat(pinnedDuring(request("GET", "ana"))).isTrue();
+        assertThat(pinnedDuring(request("GET", "bia"))).isFalse();
+        assertThat(ReadWriteRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreClientHeaderFromUntrustedAddress() throws Exception {
+        MockHttpServletRequest write = request("POST", "carla");
+        write.setRemoteAddr("203.0.113.7");
+        pinnedDuring(write);
+
+        assertThat(pinnedDuring(request("GET", "carla"))).isFalse();
+    }
+
+    @Test
+    void shouldFallBackToRemoteAddressWithoutClientHeader() throws Exception {
+        MockHttpServletRequest write = request("DELETE", null);
+        write.setRemoteAddr("10.0.0.7");
+        pinnedDuring(write);
+
+        MockHttpServletRequest read = request("GET", null);
+        read.setRemoteAddr("10.0.0.7");
+        assertThat(pinnedDuring(read)).isTrue();
+    }
+
+    private boolean pinnedDuring(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        FilterChain chain = (req, res) -> pinned.set(ReadWriteRoutingDataSource.isPinnedToPrimary());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return pinned.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/users");
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
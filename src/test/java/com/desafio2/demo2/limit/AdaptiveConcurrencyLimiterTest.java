@@ -0,0 +1,88 @@
+package com.desafio2.demo2.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(1, 10, Duration.ofMillis(100), clock::get);
+
+    @Test
+    void shouldRejectOnceLimitIsReached() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldCutLimitOncePerWindowOnSlowResponses() {
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        limiter.release(SLOW, false);
+        limiter.release(SLOW, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        assertThat(limiter.getInFlight()).isZero();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.tryAcquire();
+        limiter.release(0, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldIgnoreDurationOfUnmeasuredRequests() {
+        limiter.tryAcquire();
+        limiter.releaseUnmeasured(false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getInFlight()).isZero();
+
+        limiter.tryAcquire();
+        limiter.releaseUnmeasured(true);
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldGrowBackWhileBusyAndFast() {
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldNotGrowWhileMostlyIdle() {
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+}
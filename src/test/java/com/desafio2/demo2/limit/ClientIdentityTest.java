@@ -0,0 +1,36 @@
+package com.desafio2.demo2.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIdentityTest {
+
+    private final ClientIdentity clients = new ClientIdentity("X-Client-Id", "10.0.0.1");
+
+    @Test
+    void shouldUseHeaderFromTrustedProxy() {
+        assertThat(clients.of(request("10.0.0.1", "client-a"))).isEqualTo("client-a");
+    }
+
+    @Test
+    void shouldIgnoreHeaderFromAnyoneElse() {
+        assertThat(clients.of(request("203.0.113.7", "client-a"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void shouldFallBackToAddressWithoutHeader() {
+        assertThat(clients.of(request("10.0.0.1", null))).isEqualTo("10.0.0.1");
+        assertThat(new ClientIdentity("X-Client-Id").of(request("10.0.0.1", "client-a"))).isEqualTo("10.0.0.1");
+    }
+
+    private static MockHttpServletRequest request(String address, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.setRemoteAddr(address);
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,135 @@
+package com.desafio2.demo2.limit;
+
+import com.desafio2.demo2.controller.UserController;
+import com.desafio2.demo2.controller.UserImportController;
+import com.desafio2.demo2.dto.ImportProgressDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.service.UserBatchService;
+import com.desafio2.demo2.service.UserImportService;
+import com.desafio2.demo2.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({UserController.class, UserImportController.class})
+@Import(ValidationAutoConfiguration.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "users.limits.enabled=true",
+        "users.limits.rate=0.01",
+        "users.limits.burst=1",
+        "users.limits.trusted-proxies=127.0.0.1"
+})
+class WriteLimitInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserService service;
+
+    @MockBean
+    private UserBatchService batchService;
+
+    @MockBean
+    private UserImportService importService;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
+    @Test
+    void shouldRejectSecondWriteFromSameClientWithApiError() throws Exception {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenReturn(new UserResponseDTO(1L, "Ana", "ana@email.com"));
+
+        mockMvc.perform(create("client-a")).andExpect(status().isCreated());
+
+        mockMvc.perform(create("client-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.status", is(429)))
+                .andExpect(jsonPath("$.path", is("/users")));
+
+        verify(service, times(1)).create(any(UserRequestDTO.class));
+        verify(errorMetrics).requestRejected("rate");
+    }
+
+    @Test
+    void shouldLimitEachClientSeparately() throws Exception {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenReturn(new UserResponseDTO(1L, "Ana", "ana@email.com"));
+
+        mockMvc.perform(create("client-b")).andExpect(status().isCreated());
+        mockMvc.perform(create("client-c")).andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldIgnoreClientHeaderFromUntrustedAddress() throws Exception {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenReturn(new UserResponseDTO(1L, "Ana", "ana@email.com"));
+
+        mockMvc.perform(create("client-f").with(remoteAddress("203.0.113.7"))).andExpect(status().isCreated());
+        mockMvc.perform(create("client-g").with(remoteAddress("203.0.113.7"))).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void shouldRateLimitBulkImports() throws Exception {
+        when(importService.importUsers(any(), any(), any())).thenReturn(new ImportProgressDTO(1, 1, 0, true));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/users/import")
+                            .header("X-Client-Id", "client-e")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("{\"name\":\"Ana\",\"email\":\"ana@email.com\"}\n"))
+                    .andExpect(status().is(i == 0 ? 200 : 429));
+        }
+
+        verify(importService, times(1)).importUsers(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotLimitReads() throws Exception {
+        when(service.findById(1L)).thenReturn(new UserResponseDTO(1L, "Ana", "ana@email.com"));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/users/1").header("X-Client-Id", "client-d"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private MockHttpServletRequestBuilder create(String client) throws Exception {
+        return post("/users")
+                .header("X-Client-Id", client)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserRequestDTO("Ana", "ana@email.com")));
+    }
+}
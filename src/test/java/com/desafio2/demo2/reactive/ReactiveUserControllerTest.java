@@ -0,0 +1,124 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.ErrorMetrics;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveUserController.class)
+@Import(ValidationAutoConfiguration.class)
+@ActiveProfiles("test")
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @MockBean
+    private ReactiveUserService service;
+
+    @MockBean
+    private ErrorMetrics errorMetrics;
+
+    @Test
+    void shouldCreateUser() {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenReturn(Mono.just(new UserResponseDTO(1L, "Marcos", "marcos@email.com")));
+
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequestDTO("Marcos", "marcos@email.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturn400WhenEmailIsInvalid() {
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequestDTO("Marcos", "not-an-email"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+
+        verify(service, never()).create(any());
+    }
+
+    @Test
+    void shouldFindManyUsersByIds() {
+        when(service.findByIds(List.of(2L, 7L))).thenReturn(Mono.just(new UserLookupResponseDTO(
+                List.of(new UserResponseDTO(2L, "Ana", "ana@email.com")), List.of(7L))));
+
+        webClient.get().uri("/users?ids=2,7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users[0].name").isEqualTo("Ana")
+                .jsonPath("$.missing[0]").isEqualTo(7);
+    }
+
+    @Test
+    void shouldReturn404WhenUserNotFound() {
+        when(service.findById(99L)).thenReturn(Mono.error(new UserNotFoundException(99L)));
+
+        webClient.get().uri("/users/99")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.path").isEqualTo("/users/99");
+
+        verify(errorMetrics).userNotFound();
+    }
+
+    @Test
+    void shouldReturn409WhenEmailAlreadyExists() {
+        when(service.create(any(UserRequestDTO.class)))
+                .thenReturn(Mono.error(new EmailAlreadyExistsException("marcos@email.com")));
+
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequestDTO("Marcos", "marcos@email.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldStreamAllUsersAsNdjson() {
+        when(service.findAll()).thenReturn(Flux.just(
+                new UserResponseDTO(1L, "Marcos", "marcos@email.com"),
+                new UserResponseDTO(2L, "Ana", "ana@email.com")));
+
+        webClient.get().uri("/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponseDTO.class).hasSize(2);
+    }
+
+    @Test
+    void shouldDeleteUser() {
+        when(service.delete(1L)).thenReturn(Mono.empty());
+
+        webClient.delete().uri("/users/1")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
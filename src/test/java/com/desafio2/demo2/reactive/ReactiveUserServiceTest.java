@@ -0,0 +1,140 @@
+package com.desafio2.demo2.reactive;
+
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository repository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @InjectMocks
+    private ReactiveUserService service;
+
+    @BeforeEach
+    void setUp() {
+        // Runs the write as is; the transaction itself is R2DBC's concern
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(repository.insertEvent(any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(1));
+    }
+
+    @Test
+    void shouldCreateUser() {
+        when(repository.save(any(UserRow.class))).thenReturn(Mono.just(row(1L, "Ana", "ana@email.com")));
+
+        StepVerifier.create(service.create(new UserRequestDTO("Ana", "ana@email.com")))
+                .assertNext(user -> assertThat(user.getId()).isEqualTo(1L))
+                .verifyComplete();
+
+        verify(repository).insertEvent(eq(1L), eq("CREATED"), eq("Ana"), eq("ana@email.com"), any(),
+                any(LocalDateTime.class));
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void shouldMapDuplicateEmailOnCreate() {
+        when(repository.save(any(UserRow.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate")));
+
+        StepVerifier.create(service.create(new UserRequestDTO("Ana", "ana@email.com")))
+                .expectError(EmailAlreadyExistsException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldSignalNotFoundForUnknownId() {
+        when(repository.findById(99L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findById(99L))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreRowsExist() {
+        when(repository.findPageAfter(0L, 3)).thenReturn(Flux.just(
+                row(1L, "A", "a@email.com"), row(2L, "B", "b@email.com"), row(3L, "C", "c@email.com")));
+
+        StepVerifier.create(service.findPage(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(2);
+                    assertThat(page.getNextCursor()).isEqualTo(2L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSignalInvalidSearchWithoutQuerying() {
+        StepVerifier.create(service.search("ab", "contains", 10))
+                .expectError(BadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldSignalNotFoundWhenUpdateTouchesNoRow() {
+        when(repository.updateNameAndEmail(eq(99L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update(99L, new UserRequestDTO("Ana", "ana@email.com")))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verify(repository, never()).insertEvent(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldRecordUpdateWithTheNewVersion() {
+        when(repository.updateNameAndEmail(eq(1L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(4L));
+
+        StepVerifier.create(service.update(1L, new UserRequestDTO("Ana", "ana@email.com")))
+                .assertNext(user -> assertThat(user.getVersion()).isEqualTo(4L))
+                .verifyComplete();
+
+        verify(repository).insertEvent(eq(1L), eq("UPDATED"), eq("Ana"), eq("ana@email.com"), eq(4L),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldCompleteWhenDeleteRemovesRow() {
+        when(repository.deleteUserById(1L)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(service.delete(1L)).verifyComplete();
+
+        verify(repository).insertEvent(eq(1L), eq("DELETED"), isNull(), isNull(), isNull(), any(LocalDateTime.class));
+    }
+
+    private static UserRow row(Long id, String name, String email) {
+        UserRow row = new UserRow(name, email);
+        row.setId(id);
+        return row;
+    }
+}
@@ -0,0 +1,155 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The partitioned layout on a real PostgreSQL: every migration, including db/partitioning up
+ * to the swap (V13), then the statements that only exist for it. H2 has neither hash
+ * partitioning nor the user_emails trigger. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/partitioning",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "users.partitioned=true"
+})
+@ActiveProfiles("test")
+@Import(UserCopyRepository.class)
+class PartitionedUsersPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private UserEventRepository eventRepository;
+
+    @Autowired
+    private UserCopyRepository copyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldInsertThenUpdateThroughUpsert() {
+        LocalDateTime now = User.currentTimestamp();
+
+        UpsertedUser created = repository.upsertByEmail("Ana", "ana@email.com", now);
+        UpsertedUser updated = repository.upsertByEmail("Ana Maria", "ana@email.com", now);
+
+        assertThat(created.getInserted()).isTrue();
+        assertThat(created.getVersion()).isZero();
+        assertThat(updated.getInserted()).isFalse();
+        assertThat(updated.getId()).isEqualTo(created.getId());
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(repository.findDtoByEmail("ana@email.com"))
+                .get()
+                .extracting(UserResponseDTO::getName)
+                .isEqualTo("Ana Maria");
+    }
+
+    @Test
+    void shouldMoveTheLookupRowWhenTheEmailChanges() {
+        User saved = repository.saveAndFlush(new User("Bia", "bia@email.com"));
+
+        assertThat(repository.updateNameAndEmail(saved.getId(), "Bia", "bia.new@email.com", User.currentTimestamp()))
+                .contains(1L);
+
+        assertThat(repository.findDtoByEmail("bia.new@email.com"))
+                .get()
+                .extracting(UserResponseDTO::getId)
+                .isEqualTo(saved.getId());
+        assertThat(repository.findDtoByEmail("bia@email.com")).isEmpty();
+    }
+
+    @Test
+    void shouldFreeTheEmailWhenTheUserIsDeleted() {
+        UpsertedUser first = repository.upsertByEmail("Caio", "caio@email.com", User.currentTimestamp());
+        repository.deleteUserById(first.getId());
+
+        UpsertedUser second = repository.upsertByEmail("Caio", "caio@email.com", User.currentTimestamp());
+
+        assertThat(second.getInserted()).isTrue();
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    void shouldRejectATakenEmailAtTheLookupTable() {
+        repository.saveAndFlush(new User("Davi", "davi@email.com"));
+        User other = repository.saveAndFlush(new User("Duda", "duda@email.com"));
+
+        assertThatThrownBy(() -> repository.updateNameAndEmail(
+                other.getId(), "Duda", "davi@email.com", User.currentTimestamp()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldCopyInEscapedNamesAndSkipTakenEmails() {
+        User existing = repository.saveAndFlush(new User("Eva", "eva@email.com"));
+
+        assertThat(copyRepository.copyIn(List.of(
+                new UserRequestDTO("Tab\tName", "tab@email.com"),
+                new UserRequestDTO("Back\\slash", "back@email.com"),
+                new UserRequestDTO("Line\nBreak\r\nName", "line@email.com"),
+                new UserRequestDTO("Eva Again", "eva@email.com")), User.currentTimestamp()))
+                .containsExactlyInAnyOrder("tab@email.com", "back@email.com", "line@email.com");
+
+        assertThat(repository.findDtoByEmail("tab@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Tab\tName");
+        assertThat(repository.findDtoByEmail("back@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Back\\slash");
+        assertThat(repository.findDtoByEmail("line@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Line\nBreak\r\nName");
+        assertThat(repository.findDtoByEmail("eva@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Eva");
+
+        Long lineId = repository.findDtoByEmail("line@email.com").orElseThrow().getId();
+        assertThat(jdbcTemplate.queryForObject(
+                "select user_id from user_emails where email = 'line@email.com'", Long.class)).isEqualTo(lineId);
+
+        List<UserEvent> events = eventRepository.findAll();
+        assertThat(events).extracting(UserEvent::getType).containsOnly(UserEvent.Type.CREATED);
+        assertThat(events).extracting(UserEvent::getEmail)
+                .containsExactlyInAnyOrder("tab@email.com", "back@email.com", "line@email.com");
+        assertThat(events).extracting(UserEvent::getUserId).doesNotContain(existing.getId());
+        assertThat(events).filteredOn(event -> event.getUserId().equals(lineId))
+                .extracting(UserEvent::getName).containsExactly("Line\nBreak\r\nName");
+    }
+}
@@ -0,0 +1,79 @@
+package com.desafio2.demo2.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Opting in to db/partitioning on a database that already runs every db/migration script,
+ * the way an existing deployment does it (see README, "Partitioned Users Table"): create and
+ * backfill with a target, then swap. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitioningUpgradePostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Test
+    void shouldMovePopulatedMainlineDatabaseToPartitionedUsers() {
+        DataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        Flyway mainline = flyway(dataSource, "classpath:db/migration").load();
+        mainline.migrate();
+        String mainlineHead = mainline.info().current().getVersion().getVersion();
+        for (int i = 1; i <= 5; i++) {
+            jdbc.update("insert into users (name, email) values (?, ?)", "User " + i, "user" + i + "@email.com");
+        }
+
+        flyway(dataSource, "classpath:db/migration", "classpath:db/partitioning").target("12").load().migrate();
+
+        assertThat(count(jdbc, "users_partitioned")).isEqualTo(5);
+        assertThat(count(jdbc, "user_emails")).isEqualTo(5);
+
+        // Written between the backfill and the swap, so only the mirror trigger copies it
+        jdbc.update("insert into users (name, email) values (?, ?)", "User 6", "user6@email.com");
+
+        Flyway partitioned = flyway(dataSource, "classpath:db/migration", "classpath:db/partitioning").load();
+        partitioned.migrate();
+
+        assertThat(Integer.parseInt(partitioned.info().current().getVersion().getVersion()))
+                .isGreaterThan(Integer.parseInt(mainlineHead));
+        partitioned.validate();
+        assertThat(jdbc.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = 'users'::regclass", Integer.class))
+                .isEqualTo(1);
+        assertThat(count(jdbc, "users")).isEqualTo(6);
+        assertThat(count(jdbc, "user_emails")).isEqualTo(6);
+        assertThat(jdbc.queryForObject("select name from users where email = 'user6@email.com'", String.class))
+                .isEqualTo("User 6");
+    }
+
+    /**
+     * Same settings as application.properties. Plain inserts take ids 50 apart from the pooled
+     * sequence (V2), so a batch size of 100 spreads the five users over several batches.
+     */
+    private static FluentConfiguration flyway(DataSource dataSource, String... locations) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .placeholders(Map.of("backfill_batch_size", "100"))
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+
+    private static int count(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
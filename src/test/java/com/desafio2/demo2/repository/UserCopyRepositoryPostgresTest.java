@@ -0,0 +1,91 @@
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The COPY import on a real PostgreSQL with the plain users table; H2 has no COPY, so the
+ * import falls back to batched inserts there. PartitionedUsersPostgresTest runs the same
+ * checks on the partitioned layout. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+@Import(UserCopyRepository.class)
+class UserCopyRepositoryPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private UserEventRepository eventRepository;
+
+    @Autowired
+    private UserCopyRepository copyRepository;
+
+    @Test
+    void shouldCopyInEscapedNamesAndSkipTakenEmails() {
+        User existing = repository.saveAndFlush(new User("Eva", "eva@email.com"));
+
+        assertThat(copyRepository.isSupported()).isTrue();
+        assertThat(copyRepository.copyIn(List.of(
+                new UserRequestDTO("Tab\tName", "tab@email.com"),
+                new UserRequestDTO("Back\\slash", "back@email.com"),
+                new UserRequestDTO("Line\nBreak\r\nName", "line@email.com"),
+                new UserRequestDTO("Eva Again", "eva@email.com")), User.currentTimestamp()))
+                .containsExactlyInAnyOrder("tab@email.com", "back@email.com", "line@email.com");
+
+        assertThat(repository.findDtoByEmail("tab@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Tab\tName");
+        assertThat(repository.findDtoByEmail("back@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Back\\slash");
+        assertThat(repository.findDtoByEmail("line@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Line\nBreak\r\nName");
+        assertThat(repository.findDtoByEmail("eva@email.com")).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Eva");
+
+        Long lineId = repository.findDtoByEmail("line@email.com").orElseThrow().getId();
+        List<UserEvent> events = eventRepository.findAll();
+        assertThat(events).extracting(UserEvent::getType).containsOnly(UserEvent.Type.CREATED);
+        assertThat(events).extracting(UserEvent::getEmail)
+                .containsExactlyInAnyOrder("tab@email.com", "back@email.com", "line@email.com");
+        assertThat(events).extracting(UserEvent::getUserId).doesNotContain(existing.getId());
+        assertThat(events).filteredOn(event -> event.getUserId().equals(lineId))
+                .extracting(UserEvent::getName).containsExactly("Line\nBreak\r\nName");
+    }
+}
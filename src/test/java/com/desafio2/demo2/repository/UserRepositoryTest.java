@@ -1,29 +1,212 @@
-package com.desafio2.demo2.repository;
-
-import com.desafio2.demo2.model.User;
-import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.test.context.ActiveProfiles;
-
-import static org.assertj.core.api.Assertions.assertThat;
-
-@DataJpaTest
-@ActiveProfiles("test")
-class UserRepositoryTest {
-
-    @Autowired
-    private UserRepository repository;
-
-    @Test
-    void shouldSaveUser() {
-        User user = new User();
-        user.setName("Marcos");
-        user.setEmail("marcos@email.com");
-
-        User saved = repository.save(user);
-
-        assertThat(saved.getId()).isNotNull();
-        assertThat(saved.getName()).isEqualTo("Marcos");
-    }
-}
+package com.desafio2.demo2.repository;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Test
+    void shouldSaveUser() {
+        User user = new User();
+        user.setName("Marcos");
+        user.setEmail("marcos@email.com");
+
+        User saved = repository.save(user);
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getName()).isEqualTo("Marcos");
+    }
+
+    @Test
+    void shouldReturnKeysetPageOrderedById() {
+        User first = repository.save(new User("Ana", "ana@email.com"));
+        User second = repository.save(new User("Bia", "bia@email.com"));
+        User third = repository.save(new User("Caio", "caio@email.com"));
+
+        List<UserResponseDTO> page = repository.findPageAfter(first.getId(), PageRequest.of(0, 1));
+
+        assertThat(page).extracting(UserResponseDTO::getId).containsExactly(second.getId());
+        assertThat(repository.findPageAfter(third.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void shouldStreamAllUsersOrderedById() {
+        repository.save(new User("Ana", "ana@email.com"));
+        repository.save(new User("Bia", "bia@email.com"));
+
+        try (Stream<UserResponseDTO> users = repository.streamAll()) {
+            assertThat(users.map(UserResponseDTO::getName)).containsExactly("Ana", "Bia");
+        }
+    }
+
+    @Test
+    void shouldReadUsersAsDtoProjections() {
+        User first = repository.save(new User("Ana", "ana@email.com"));
+        User second = repository.save(new User("Bia", "bia@email.com"));
+
+        assertThat(repository.findDtoById(second.getId()))
+                .get()
+                .extracting(UserResponseDTO::getEmail)
+                .isEqualTo("bia@email.com");
+        assertThat(repository.findDtoById(-1L)).isEmpty();
+        assertThat(repository.findAllDtos())
+                .extracting(UserResponseDTO::getId)
+                .containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void shouldFindManyDtosByIdInOneQuery() {
+        User first = repository.save(new User("Ana", "ana@email.com"));
+        repository.save(new User("Bia", "bia@email.com"));
+        User third = repository.save(new User("Caio", "caio@email.com"));
+
+        assertThat(repository.findDtosByIdIn(List.of(third.getId(), first.getId(), -1L)))
+                .extracting(UserResponseDTO::getName)
+                .containsExactlyInAnyOrder("Ana", "Caio");
+        // The version a client needs for If-Match on each user
+        assertThat(repository.findDtosByIdIn(List.of(first.getId())))
+                .singleElement()
+                .extracting(UserResponseDTO::getVersion)
+                .isEqualTo(first.getVersion());
+    }
+
+    @Test
+    void shouldReadBackTheTimestampsItWrote() {
+        User first = repository.saveAndFlush(new User("Ana", "ana@email.com"));
+        LocalDateTime later = User.currentTimestamp().plusSeconds(5);
+        repository.updateNameAndEmail(first.getId(), "Ana Maria", "ana@email.com", later);
+
+        assertThat(repository.findDtoById(first.getId()))
+                .get()
+                .extracting(UserResponseDTO::getUpdatedAt)
+                .isEqualTo(later);
+
+        User second = repository.saveAndFlush(new User("Bia", "bia@email.com"));
+        assertThat(repository.findDtoById(second.getId()))
+                .get()
+                .extracting(UserResponseDTO::getUpdatedAt)
+                .isEqualTo(second.getUpdatedAt());
+    }
+
+    @Test
+    void shouldUpdateOnlyAtTheExpectedVersion() {
+        User saved = repository.saveAndFlush(new User("Ana", "ana@email.com"));
+        LocalDateTime now = User.currentTimestamp();
+
+        assertThat(saved.getVersion()).isZero();
+        assertThat(repository.updateNameAndEmailIfVersion(saved.getId(), "Ana Maria", "ana@email.com", now, 0L))
+                .isEqualTo(1);
+        assertThat(repository.updateNameAndEmailIfVersion(saved.getId(), "Ana Clara", "ana@email.com", now, 0L))
+                .isZero();
+        assertThat(repository.findVersionById(saved.getId())).contains(1L);
+        assertThat(repository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectDuplicateEmailAtTheConstraint() {
+        repository.saveAndFlush(new User("Ana", "ana@email.com"));
+
+        assertThatThrownBy(() -> repository.saveAndFlush(new User("Outra Ana", "ana@email.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldFindDtoByExactEmail() {
+        User saved = repository.save(new User("Ana", "ana@email.com"));
+
+        assertThat(repository.findDtoByEmail("ana@email.com"))
+                .get()
+                .extracting(UserResponseDTO::getId)
+                .isEqualTo(saved.getId());
+        assertThat(repository.findDtoByEmail("ANA@email.com")).isEmpty();
+    }
+
+    @Test
+    void shouldSearchByPrefixAndContains() {
+        repository.save(new User("Ana Souza", "ana@email.com"));
+        repository.save(new User("Bruno", "bruno.ana@email.com"));
+        repository.save(new User("Carla", "carla@email.com"));
+
+        assertThat(repository.searchByPrefix("ana", PageRequest.of(0, 10)))
+                .extracting(UserResponseDTO::getName)
+                .containsExactly("Ana Souza");
+        assertThat(repository.searchByContains("ana", PageRequest.of(0, 10)))
+                .extracting(UserResponseDTO::getName)
+                .containsExactly("Ana Souza", "Bruno");
+    }
+
+    @Test
+    void shouldUpdateAndDeleteInSingleStatements() {
+        User saved = repository.save(new User("Ana", "ana@email.com"));
+
+        LocalDateTime now = User.currentTimestamp();
+
+        assertThat(repository.updateNameAndEmail(saved.getId(), "Ana Maria", "ana.maria@email.com", now)).contains(1L);
+        assertThat(repository.updateNameAndEmail(saved.getId(), "Ana Clara", "ana.maria@email.com", now)).contains(2L);
+        assertThat(repository.updateNameAndEmail(-1L, "Nobody", "nobody@email.com", now)).isEmpty();
+
+        assertThat(repository.deleteUserById(saved.getId())).isEqualTo(1);
+        assertThat(repository.deleteUserById(saved.getId())).isZero();
+    }
+
+    /**
+     * H2 has no hash partitioning, so the trigger that fills user_emails on PostgreSQL is
+     * stood in for by inserting the lookup rows directly. The real trigger is covered by
+     * {@link PartitionedUsersPostgresTest}.
+     */
+    @Nested
+    @TestPropertySource(properties = "users.partitioned=true")
+    class WhenPartitioned {
+
+        @Autowired
+        private UserRepository repository;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        @BeforeEach
+        void createLookupTable() {
+            entityManager.createNativeQuery("create table if not exists user_emails "
+                    + "(email varchar(100) primary key, user_id bigint not null)").executeUpdate();
+        }
+
+        @Test
+        void shouldFindByEmailThroughLookupTable() {
+            User saved = repository.saveAndFlush(new User("Ana", "ana@email.com"));
+            repository.saveAndFlush(new User("Bia", "bia@email.com"));
+            entityManager.createNativeQuery("insert into user_emails (email, user_id) values (:email, :id)")
+                    .setParameter("email", "ana@email.com")
+                    .setParameter("id", saved.getId())
+                    .executeUpdate();
+
+            assertThat(repository.findDtoByEmail("ana@email.com"))
+                    .get()
+                    .extracting(UserResponseDTO::getId, UserResponseDTO::getName)
+                    .containsExactly(saved.getId(), "Ana");
+            // Not in the lookup table, so not found even though the row exists
+            assertThat(repository.findDtoByEmail("bia@email.com")).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.BatchItemResultDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.exception.BatchTooLargeException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private UserEventRepository eventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserBatchService service;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        service = new UserBatchService(repository, eventRepository, VALIDATOR, transactionManager, 2, 5);
+    }
+
+    @Test
+    void shouldInsertValidItemsInChunks() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        BatchCreateResponseDTO response = service.createAll(List.of(
+                new UserRequestDTO("Ana", "ana@email.com"),
+                new UserRequestDTO("Bia", "bia@email.com"),
+                new UserRequestDTO("Caio", "caio@email.com")));
+
+        assertThat(response.getCreated()).isEqualTo(3);
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getResults()).extracting(BatchItemResultDTO::getIndex).containsExactly(0, 1, 2);
+        verify(repository, times(2)).saveAll(anyList());
+        verify(eventRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void shouldReportInvalidItemsWithoutInsertingThem() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        BatchCreateResponseDTO response = service.createAll(List.of(
+                new UserRequestDTO("", "not-an-email"),
+                new UserRequestDTO("Bia", "bia@email.com")));
+
+        BatchItemResultDTO invalid = response.getResults().get(0);
+        assertThat(invalid.getStatus()).isEqualTo(BatchItemResultDTO.Status.INVALID);
+        assertThat(invalid.getError()).contains("email").contains("name");
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(BatchItemResultDTO.Status.CREATED);
+    }
+
+    @Test
+    void shouldRetryFailedChunkRowByRow() {
+        when(repository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getEmail().equals("dup@email.com")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            user.setId(ids.incrementAndGet());
+            return user;
+        });
+
+        BatchCreateResponseDTO response = service.createAll(List.of(
+                new UserRequestDTO("Ana", "ana@email.com"),
+                new UserRequestDTO("Dup", "dup@email.com")));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(BatchItemResultDTO.Status.FAILED);
+        assertThat(response.getResults().get(1).getError()).contains("dup@email.com");
+    }
+
+    @Test
+    void shouldRejectBatchesOverTheLimit() {
+        List<UserRequestDTO> tooMany = List.of(
+                new UserRequestDTO("A", "a@email.com"), new UserRequestDTO("B", "b@email.com"),
+                new UserRequestDTO("C", "c@email.com"), new UserRequestDTO("D", "d@email.com"),
+                new UserRequestDTO("E", "e@email.com"), new UserRequestDTO("F", "f@email.com"));
+
+        assertThatThrownBy(() -> service.createAll(tooMany))
+                .isInstanceOf(BatchTooLargeException.class)
+                .hasMessageContaining("5");
+
+        verifyNoInteractions(repository);
+    }
+
+    private List<User> withIds(List<User> users) {
+        users.forEach(user -> user.setId(ids.incrementAndGet()));
+        return users;
+    }
+}
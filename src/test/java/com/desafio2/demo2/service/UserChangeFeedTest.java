@@ -0,0 +1,134 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UserEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class UserChangeFeedTest {
+
+    @Mock
+    private UserEventRepository repository;
+
+    private UserChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new UserChangeFeed(repository, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void shouldCatchUpOffTheSubscribingThreadAfterReturning() throws InterruptedException {
+        CountDownLatch returned = new CountDownLatch(1);
+        AtomicReference<String> readBy = new AtomicReference<>();
+        when(repository.findPublishedAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            returned.await(5, TimeUnit.SECONDS);
+            readBy.set(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        feed.subscribe(0);
+        returned.countDown();
+
+        verify(repository, timeout(5000)).findPublishedAfter(eq(0L), any(Pageable.class));
+        assertThat(readBy.get()).startsWith("change-feed-");
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPageThroughAnOldPosition() {
+        when(repository.findPublishedAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(events(1, UserChangeFeed.MAX_PAGE_SIZE))
+                .thenReturn(events(UserChangeFeed.MAX_PAGE_SIZE + 1, 10));
+
+        feed.subscribe(0);
+
+        verify(repository, timeout(5000)).findPublishedAfter(eq(0L), any(Pageable.class));
+        verify(repository, timeout(5000)).findPublishedAfter(eq((long) UserChangeFeed.MAX_PAGE_SIZE), any(Pageable.class));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void shouldReadMissedBatchesFromTheTable() {
+        when(repository.findPublishedAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        feed.subscribe(0);
+        verify(repository, timeout(5000)).findPublishedAfter(eq(0L), any(Pageable.class));
+
+        // Positions 1 and 2 were published elsewhere, so this batch does not follow on
+        feed.published(events(3, 1));
+
+        verify(repository, timeout(5000).times(2)).findPublishedAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void shouldNotTouchTheTableForContiguousBatches() {
+        when(repository.findPublishedAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        feed.subscribe(0);
+        verify(repository, timeout(5000)).findPublishedAfter(eq(0L), any(Pageable.class));
+
+        // One batch at a time: a batch that replaces one not yet sent is a gap by design
+        feed.published(events(1, 2));
+        verify(repository, after(200).times(1)).findPublishedAfter(anyLong(), any(Pageable.class));
+        feed.published(events(3, 1));
+
+        verify(repository, after(200).times(1)).findPublishedAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldReadEventsPublishedElsewhereWhenPolled() {
+        // No local relay: published() is never called, only the poll sees new positions
+        when(repository.findPublishedAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        feed.subscribe(0);
+        verify(repository, timeout(5000)).findPublishedAfter(eq(0L), any(Pageable.class));
+
+        when(repository.findLastPosition()).thenReturn(3L);
+        feed.poll();
+        verify(repository, timeout(5000).times(2)).findPublishedAfter(eq(0L), any(Pageable.class));
+
+        // Same position on the next run: nothing to read
+        feed.poll();
+        verify(repository, after(200).times(2)).findPublishedAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldNotPollWithoutSubscribers() {
+        feed.poll();
+
+        verifyNoInteractions(repository);
+    }
+
+    private static List<UserEventDTO> events(long from, int count) {
+        return LongStream.range(from, from + count)
+                .mapToObj(position -> new UserEventDTO(position, UserEvent.Type.DELETED, position,
+                        null, null, null, LocalDateTime.now()))
+                .toList();
+    }
+}
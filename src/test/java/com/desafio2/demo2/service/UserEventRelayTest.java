@@ -0,0 +1,88 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.UserChangesResponseDTO;
+import com.desafio2.demo2.dto.UserEventDTO;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UserEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({UserEventRelay.class, UserChangeFeed.class})
+@TestPropertySource(properties = "users.events.batch-size=2")
+@ActiveProfiles("test")
+class UserEventRelayTest {
+
+    @Autowired
+    private UserEventRelay relay;
+
+    @Autowired
+    private UserChangeFeed feed;
+
+    @Autowired
+    private UserEventRepository repository;
+
+    @Test
+    void shouldVersionTheCollectionByLatestPublishedPosition() {
+        assertThat(repository.findUsersVersion()).isEmpty();
+
+        repository.save(UserEvent.created(1L, "Ana", "ana@email.com", 0L));
+        repository.save(UserEvent.created(2L, "Bia", "bia@email.com", 0L));
+        assertThat(repository.findUsersVersion()).isEmpty();
+
+        relay.publishPending();
+
+        assertThat(repository.findUsersVersion()).get()
+                .satisfies(version -> {
+                    assertThat(version.getPosition()).isEqualTo(2);
+                    assertThat(version.getLastModified()).isNotNull();
+                });
+    }
+
+    @Test
+    void shouldAssignContiguousPositionsInBatches() {
+        repository.save(UserEvent.created(1L, "Ana", "ana@email.com", 0L));
+        repository.save(UserEvent.updated(1L, "Ana Maria", "ana@email.com", 1L));
+        repository.save(UserEvent.deleted(1L));
+
+        assertThat(relay.publishPending()).isEqualTo(2);
+        assertThat(relay.publishPending()).isEqualTo(1);
+        assertThat(relay.publishPending()).isZero();
+
+        assertThat(repository.findLastPosition()).isEqualTo(3L);
+        assertThat(feed.read(0, 10).getEvents())
+                .extracting(UserEventDTO::getType)
+                .containsExactly(UserEvent.Type.CREATED, UserEvent.Type.UPDATED, UserEvent.Type.DELETED);
+    }
+
+    @Test
+    void shouldResumeFeedAfterGivenPosition() {
+        repository.save(UserEvent.created(1L, "Ana", "ana@email.com", 0L));
+        repository.save(UserEvent.created(2L, "Bia", "bia@email.com", 0L));
+        relay.publishPending();
+        repository.save(UserEvent.deleted(1L));
+        relay.publishPending();
+
+        UserChangesResponseDTO page = feed.read(2, 10);
+
+        assertThat(page.getEvents()).extracting(UserEventDTO::getPosition).containsExactly(3L);
+        assertThat(page.getEvents().get(0).getUserId()).isEqualTo(1L);
+        assertThat(page.getNext()).isEqualTo(3L);
+        assertThat(feed.read(3, 10).getNext()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldNotPublishTheSameEventTwice() {
+        repository.save(UserEvent.created(1L, "Ana", "ana@email.com", 0L));
+        relay.publishPending();
+        relay.publishPending();
+
+        assertThat(feed.read(0, 10).getEvents()).hasSize(1);
+    }
+}
@@ -0,0 +1,169 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.BatchCreateResponseDTO;
+import com.desafio2.demo2.dto.BatchItemResultDTO;
+import com.desafio2.demo2.dto.ImportErrorDTO;
+import com.desafio2.demo2.dto.ImportProgressDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.repository.UserCopyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private UserCopyRepository copyRepository;
+
+    @Mock
+    private UserBatchService batchService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserImportService service;
+
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+    private final List<ImportProgressDTO> progress = new ArrayList<>();
+
+    private final UserImportService.Listener listener = new UserImportService.Listener() {
+        @Override
+        public void onError(ImportErrorDTO error) {
+            errors.add(error);
+        }
+
+        @Override
+        public void onProgress(ImportProgressDTO update) {
+            progress.add(update);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        service = new UserImportService(new ObjectMapper(), VALIDATOR, copyRepository, batchService,
+                transactionManager, 2);
+    }
+
+    @Test
+    void shouldImportNdjsonInChunksAndReportEachBadLine() throws IOException {
+        when(batchService.createAll(anyList())).thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+
+        ImportProgressDTO done = service.importUsers(source("""
+                {"name":"Ana","email":"ana@email.com"}
+                not json
+                {"name":"","email":"not-an-email"}
+
+                {"name":"Bia","email":"bia@email.com"}
+                {"name":"Caio","email":"caio@email.com"}
+                """), UserImportService.Format.NDJSON, listener);
+
+        assertThat(errors).extracting(ImportErrorDTO::getLine).containsExactly(2L, 3L);
+        assertThat(errors.get(0).getError()).isEqualTo("Malformed JSON");
+        assertThat(errors.get(1).getError()).contains("email").contains("name");
+        assertThat(done.getProcessed()).isEqualTo(5);
+        assertThat(done.getImported()).isEqualTo(3);
+        assertThat(done.getFailed()).isEqualTo(2);
+        assertThat(progress).extracting(ImportProgressDTO::isDone).containsExactly(false, false, true);
+        verify(batchService, times(2)).createAll(anyList());
+    }
+
+    @Test
+    void shouldLoadThroughCopyAndReportTakenEmails() throws IOException {
+        when(copyRepository.isSupported()).thenReturn(true);
+        when(copyRepository.copyIn(anyList(), any())).thenReturn(Set.of("ana@email.com"));
+
+        ImportProgressDTO done = service.importUsers(source("""
+                {"name":"Ana","email":"ana@email.com"}
+                {"name":"Bia","email":"bia@email.com"}
+                """), UserImportService.Format.NDJSON, listener);
+
+        assertThat(done.getImported()).isEqualTo(1);
+        assertThat(errors).extracting(ImportErrorDTO::getLine, ImportErrorDTO::getError)
+                .containsExactly(tuple(2L, "Email already exists: bia@email.com"));
+        verifyNoInteractions(batchService);
+    }
+
+    @Test
+    void shouldFallBackToBatchesWhenCopyFails() throws IOException {
+        when(copyRepository.isSupported()).thenReturn(true);
+        when(copyRepository.copyIn(anyList(), any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(batchService.createAll(anyList())).thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+
+        ImportProgressDTO done = service.importUsers(source("""
+                {"name":"Ana","email":"ana@email.com"}
+                """), UserImportService.Format.NDJSON, listener);
+
+        assertThat(done.getImported()).isEqualTo(1);
+        assertThat(errors).isEmpty();
+    }
+
+    @Test
+    void shouldReadCsvColumnsByHeaderAndRejectRepeatedEmails() throws IOException {
+        when(batchService.createAll(anyList())).thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+
+        ImportProgressDTO done = service.importUsers(source("""
+                email,id,name
+                ana@email.com,1,"Souza, Ana"
+                ana@email.com,2,Ana Again
+                bia@email.com,3
+                "unterminated,4,Bia
+                """), UserImportService.Format.CSV, listener);
+
+        assertThat(done.getImported()).isEqualTo(1);
+        assertThat(errors).extracting(ImportErrorDTO::getLine).containsExactly(3L, 4L, 5L);
+        assertThat(errors.get(0).getError()).isEqualTo("Email already used on line 2: ana@email.com");
+        assertThat(errors.get(1).getError()).isEqualTo("Expected 3 columns but found 2");
+        assertThat(errors.get(2).getError()).isEqualTo("Unterminated quoted field");
+        verify(batchService).createAll(argThat(users -> users.size() == 1
+                && users.get(0).getName().equals("Souza, Ana")
+                && users.get(0).getEmail().equals("ana@email.com")));
+    }
+
+    @Test
+    void shouldRejectCsvWithoutNameAndEmailColumns() {
+        assertThatThrownBy(() -> service.importUsers(source("id,full_name\n1,Ana\n"),
+                UserImportService.Format.CSV, listener))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(batchService, copyRepository);
+    }
+
+    private static BufferedReader source(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+
+    private static BatchCreateResponseDTO allCreated(List<UserRequestDTO> users) {
+        return new BatchCreateResponseDTO(IntStream.range(0, users.size())
+                .mapToObj(i -> BatchItemResultDTO.created(i,
+                        new UserResponseDTO((long) i + 1, users.get(i).getName(), users.get(i).getEmail())))
+                .toList());
+    }
+}
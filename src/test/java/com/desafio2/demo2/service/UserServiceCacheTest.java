@@ -0,0 +1,99 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.config.CacheConfig;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private UserRepository repository;
+
+    @MockBean
+    private UserEventRepository eventRepository;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(repository.findDtoById(1L))
+                .thenReturn(Optional.of(new UserResponseDTO(1L, "Marcos", "marcos@email.com")));
+
+        service.findById(1L);
+        UserResponseDTO cached = service.findById(1L);
+
+        assertThat(cached.getName()).isEqualTo("Marcos");
+        verify(repository, times(1)).findDtoById(1L);
+    }
+
+    @Test
+    void shouldWriteThroughOnCreate() {
+        when(repository.saveAndFlush(any(User.class))).thenReturn(user(5L, "Ana", "ana@email.com"));
+
+        service.create(new UserRequestDTO("Ana", "ana@email.com"));
+        UserResponseDTO found = service.findById(5L);
+
+        assertThat(found.getEmail()).isEqualTo("ana@email.com");
+        verify(repository, never()).findDtoById(any());
+    }
+
+    @Test
+    void shouldReplaceCachedEntryOnUpdate() {
+        when(repository.findDtoById(1L))
+                .thenReturn(Optional.of(new UserResponseDTO(1L, "Marcos", "marcos@email.com")));
+        when(repository.updateNameAndEmail(eq(1L), eq("Marcos Dias"), eq("marcos@email.com"), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(1L));
+
+        service.findById(1L);
+        service.update(1L, new UserRequestDTO("Marcos Dias", "marcos@email.com"));
+
+        assertThat(service.findById(1L).getName()).isEqualTo("Marcos Dias");
+    }
+
+    @Test
+    void shouldEvictCachedEntryOnDelete() {
+        when(repository.findDtoById(1L))
+                .thenReturn(Optional.of(new UserResponseDTO(1L, "Marcos", "marcos@email.com")));
+        when(repository.deleteUserById(1L)).thenReturn(1);
+
+        service.findById(1L);
+        service.delete(1L);
+
+        assertThat(cacheManager.getCache(CacheConfig.USERS_CACHE).get(1L)).isNull();
+    }
+
+    private static User user(Long id, String name, String email) {
+        User user = new User(name, email);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,100 @@
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.config.CacheConfig;
+import com.desafio2.demo2.config.ReadWriteRoutingDataSource;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Replica routing on H2: the replica is a separate database that never receives the
+ * primary's writes, so it plays a replica lagging behind by as long as the test runs.
+ */
+@SpringBootTest(properties = {
+        "users.replicas.urls=jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1",
+        "users.replicas.health-check-interval=0s"
+})
+@ActiveProfiles("test")
+class UserServiceReplicaCacheTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private UserEventRepository eventRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table if not exists users (id bigint primary key, name varchar(100), "
+                + "email varchar(100), updated_at timestamp, version bigint)");
+        replica.update("delete from users");
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        repository.deleteAll();
+    }
+
+    @Test
+    void shouldRouteThroughReplicas() {
+        assertThat(dataSource).isInstanceOf(ReadWriteRoutingDataSource.class);
+    }
+
+    @Test
+    void shouldNotCacheStaleUserFromLaggingReplica() {
+        UserResponseDTO created = service.create(new UserRequestDTO("Marcos Dias", "marcos@email.com"));
+        replica.update("insert into users (id, name, email, version) values (?, ?, ?, ?)",
+                created.getId(), "Marcos", "marcos@email.com", 0L);
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+
+        assertThat(repository.findDtoById(created.getId())).get()
+                .extracting(UserResponseDTO::getName).isEqualTo("Marcos");
+        assertThat(service.findById(created.getId()).getName()).isEqualTo("Marcos Dias");
+        assertThat(service.findById(created.getId()).getName()).isEqualTo("Marcos Dias");
+    }
+
+    @Test
+    void shouldNotCacheUserDeletedOnPrimary() {
+        UserResponseDTO created = service.create(new UserRequestDTO("Ana", "ana@email.com"));
+        replica.update("insert into users (id, name, email, version) values (?, ?, ?, ?)",
+                created.getId(), "Ana", "ana@email.com", 0L);
+        service.delete(created.getId());
+
+        assertThat(repository.findDtoById(created.getId())).isPresent();
+        assertThatThrownBy(() -> service.findById(created.getId()))
+                .isInstanceOf(UserNotFoundException.class);
+        assertThat(cacheManager.getCache(CacheConfig.USERS_CACHE).get(created.getId())).isNull();
+    }
+}
@@ -1,208 +1,426 @@
-package com.desafio2.demo2.service;
-
-import com.desafio2.demo2.dto.UserResponseDTO;
-import com.desafio2.demo2.exception.UserNotFoundException;
-import com.desafio2.demo2.model.User;
-import com.desafio2.demo2.repository.UserRepository;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import com.desafio2.demo2.dto.UserRequestDTO;
-import com.desafio2.demo2.dto.UserResponseDTO;
-import org.springframework.test.context.ActiveProfiles;
-
-import java.util.List;
-import java.util.Optional;
-
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.*;
-
-@ExtendWith(MockitoExtension.class)
-@ActiveProfiles("test")
-class UserServiceTest {
-
-    @Mock
-    private UserRepository repository;
-
-    @InjectMocks
-    private UserService service;
-
-    @Test
-    void shouldReturnUserWhenFoundById() {
-        Long userId = Long.valueOf(1);
-        User user = new User();
-        user.setId(userId);
-        user.setName("Marcos");
-        user.setEmail("marcos@email.com");
-
-        when(repository.findById(userId)).thenReturn(Optional.of(user));
-
-        UserResponseDTO result = service.findById(userId);
-
-        assertThat(result.getId()).isEqualTo(userId);
-        assertThat(result.getName()).isEqualTo("Marcos");
-        assertThat(result.getEmail()).isEqualTo("marcos@email.com");
-    }
-
-    @Test
-    void shouldThrowExceptionWhenUserNotFound() {
-        Long userId = Long.valueOf(99);
-
-        when(repository.findById(userId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> service.findById(userId))
-                .isInstanceOf(UserNotFoundException.class)
-                .hasMessageContaining("99");
-    }
-
-    @Test
-    void shouldDeleteUserWhenExists() {
-        Long userId = 1L;
-        User found = new User("Marcos", "marcos@email.com");
-        found.setId(userId);
-
-        when(repository.findById(userId)).thenReturn(Optional.of(found));
-
-        service.delete(userId);
-
-        verify(repository).delete(found);
-    }
-
-    @Test
-    void shouldThrowExceptionWhenDeletingNonExistingUser() {
-        Long userId = 2L;
-
-        when(repository.findById(userId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> service.delete(userId))
-                .isInstanceOf(UserNotFoundException.class);
-    }
-
-    @Test
-    void shouldCreateUserSuccessfully() {
-        UserRequestDTO request = new UserRequestDTO("João", "joao@email.com");
-
-        User userToSave = new User();
-        userToSave.setName("João");
-        userToSave.setEmail("joao@email.com");
-
-        User savedUser = new User();
-        savedUser.setId(1L);
-        savedUser.setName("João");
-        savedUser.setEmail("joao@email.com");
-
-        when(repository.save(any(User.class))).thenReturn(savedUser);
-
-        UserResponseDTO result = service.create(request);
-
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(1L);
-        assertThat(result.getName()).isEqualTo("João");
-        assertThat(result.getEmail()).isEqualTo("joao@email.com");
-
-        verify(repository, times(1)).save(any(User.class));
-    }
-
-    @Test
-    void shouldUpdateUserSuccessfully() {
-        Long userId = 1L;
-        UserRequestDTO request = new UserRequestDTO("João Atualizado", "joao.novo@email.com");
-
-        User existingUser = new User();
-        existingUser.setId(userId);
-        existingUser.setName("João");
-        existingUser.setEmail("joao@email.com");
-
-        User updatedUser = new User();
-        updatedUser.setId(userId);
-        updatedUser.setName("João Atualizado");
-        updatedUser.setEmail("joao.novo@email.com");
-
-        when(repository.findById(userId)).thenReturn(Optional.of(existingUser));
-
-        when(repository.save(any(User.class))).thenReturn(updatedUser);
-
-        UserResponseDTO result = service.update(userId, request);
-
-        assertThat(result.getId()).isEqualTo(userId);
-        assertThat(result.getName()).isEqualTo("João Atualizado");
-        assertThat(result.getEmail()).isEqualTo("joao.novo@email.com");
-
-        verify(repository).findById(userId);
-        verify(repository).save(any(User.class));
-    }
-
-    @Test
-    void shouldReturnAllUsers() {
-        User user1 = new User();
-        user1.setId(1L);
-        user1.setName("João");
-        user1.setEmail("joao@email.com");
-
-        User user2 = new User();
-        user2.setId(2L);
-        user2.setName("Maria");
-        user2.setEmail("maria@email.com");
-
-        when(repository.findAll()).thenReturn(List.of(user1, user2));
-
-        List<UserResponseDTO> result = service.findAll();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getName()).isEqualTo("João");
-        assertThat(result.get(1).getName()).isEqualTo("Maria");
-
-        verify(repository).findAll();
-    }
-
-    @Test
-    void shouldThrowExceptionWhenUpdatingNonExistent() {
-        Long userId = 99L;
-        UserRequestDTO request = new UserRequestDTO("Test", "test@email.com");
-
-        when(repository.findById(userId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> service.update(userId, request))
-                .isInstanceOf(UserNotFoundException.class)
-                .hasMessageContaining("99");
-
-        verify(repository).findById(userId);
-        verify(repository, never()).save(any());
-    }
-
-    @Test
-    void shouldDeleteUserSuccessfully() {
-        Long userId = 1L;
-
-        User user = new User();
-        user.setId(userId);
-        user.setName("João");
-        user.setEmail("joao@email.com");
-
-        when(repository.findById(userId)).thenReturn(Optional.of(user));
-
-        doNothing().when(repository).delete(any(User.class));
-
-        service.delete(userId);
-
-        verify(repository).findById(userId);
-        verify(repository).delete(any(User.class));
-    }
-
-    @Test
-    void shouldThrowExceptionWhenDeletingNonExistent() {
-        Long userId = 99L;
-
-        when(repository.findById(userId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> service.delete(userId))
-                .isInstanceOf(UserNotFoundException.class);
-
-        verify(repository, never()).delete(any());
-    }
-
-    
-}
+package com.desafio2.demo2.service;
+
+import com.desafio2.demo2.dto.UserResponseDTO;
+import com.desafio2.demo2.exception.BadRequestException;
+import com.desafio2.demo2.exception.EmailAlreadyExistsException;
+import com.desafio2.demo2.exception.UserNotFoundException;
+import com.desafio2.demo2.model.User;
+import com.desafio2.demo2.model.UserEvent;
+import com.desafio2.demo2.repository.UpsertedUser;
+import com.desafio2.demo2.repository.UserEventRepository;
+import com.desafio2.demo2.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.desafio2.demo2.dto.UserLookupResponseDTO;
+import com.desafio2.demo2.dto.UserPageResponseDTO;
+import com.desafio2.demo2.dto.UserRequestDTO;
+import com.desafio2.demo2.dto.UserResponseDTO;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class UserServiceTest {
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private UserEventRepository eventRepository;
+
+    @InjectMocks
+    private UserService service;
+
+    @Test
+    void shouldReturnUserWhenFoundById() {
+        Long userId = Long.valueOf(1);
+        UserResponseDTO user = new UserResponseDTO(userId, "Marcos", "marcos@email.com");
+
+        when(repository.findDtoById(userId)).thenReturn(Optional.of(user));
+
+        UserResponseDTO result = service.findById(userId);
+
+        assertThat(result.getId()).isEqualTo(userId);
+        assertThat(result.getName()).isEqualTo("Marcos");
+        assertThat(result.getEmail()).isEqualTo("marcos@email.com");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUserNotFound() {
+        Long userId = Long.valueOf(99);
+
+        when(repository.findDtoById(userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.findById(userId))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void shouldFindManyUsersInOneQueryInRequestOrder() {
+        when(repository.findDtosByIdIn(List.of(3L, 1L, 9L))).thenReturn(List.of(
+                new UserResponseDTO(1L, "Marcos", "marcos@email.com", null, 0L),
+                new UserResponseDTO(3L, "Ana", "ana@email.com", null, 2L)));
+
+        UserLookupResponseDTO result = service.findByIds(List.of(3L, 1L, 3L, 9L));
+
+        assertThat(result.getUsers()).extracting(UserResponseDTO::getId).containsExactly(3L, 1L);
+        assertThat(result.getMissing()).containsExactly(9L);
+        assertThat(result.getVersions()).containsExactly(entry(3L, 2L), entry(1L, 0L));
+        verify(repository, times(1)).findDtosByIdIn(any());
+        verify(repository, never()).findDtoById(any());
+    }
+
+    @Test
+    void shouldNotQueryWhenNoIdsAreRequested() {
+        UserLookupResponseDTO result = service.findByIds(List.of());
+
+        assertThat(result.getUsers()).isEmpty();
+        assertThat(result.getMissing()).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldDeleteUserWhenExists() {
+        Long userId = 1L;
+
+        when(repository.deleteUserById(userId)).thenReturn(1);
+
+        service.delete(userId);
+
+        verify(repository).deleteUserById(userId);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDeletingNonExistingUser() {
+        Long userId = 2L;
+
+        when(repository.deleteUserById(userId)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.delete(userId))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void shouldCreateUserSuccessfully() {
+        UserRequestDTO request = new UserRequestDTO("João", "joao@email.com");
+
+        User userToSave = new User();
+        userToSave.setName("João");
+        userToSave.setEmail("joao@email.com");
+
+        User savedUser = new User();
+        savedUser.setId(1L);
+        savedUser.setName("João");
+        savedUser.setEmail("joao@email.com");
+
+        when(repository.saveAndFlush(any(User.class))).thenReturn(savedUser);
+
+        UserResponseDTO result = service.create(request);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getName()).isEqualTo("João");
+        assertThat(result.getEmail()).isEqualTo("joao@email.com");
+
+        verify(repository, times(1)).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void shouldUpdateUserSuccessfully() {
+        Long userId = 1L;
+        UserRequestDTO request = new UserRequestDTO("João Atualizado", "joao.novo@email.com");
+
+        when(repository.updateNameAndEmail(eq(userId), eq("João Atualizado"), eq("joao.novo@email.com"), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(4L));
+
+        UserResponseDTO result = service.update(userId, request);
+
+        assertThat(result.getId()).isEqualTo(userId);
+        assertThat(result.getName()).isEqualTo("João Atualizado");
+        assertThat(result.getEmail()).isEqualTo("joao.novo@email.com");
+        assertThat(result.getUpdatedAt()).isNotNull();
+        assertThat(result.getVersion()).isEqualTo(4L);
+
+        verify(repository).updateNameAndEmail(userId, "João Atualizado", "joao.novo@email.com", result.getUpdatedAt());
+        verify(repository, never()).findVersionById(any());
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any(User.class));
+    }
+
+    @Test
+    void shouldReturnAllUsers() {
+        UserResponseDTO user1 = new UserResponseDTO(1L, "João", "joao@email.com");
+        UserResponseDTO user2 = new UserResponseDTO(2L, "Maria", "maria@email.com");
+
+        when(repository.findAllDtos()).thenReturn(List.of(user1, user2));
+
+        List<UserResponseDTO> result = service.findAll();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getName()).isEqualTo("João");
+        assertThat(result.get(1).getName()).isEqualTo("Maria");
+
+        verify(repository).findAllDtos();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUpdatingNonExistent() {
+        Long userId = 99L;
+        UserRequestDTO request = new UserRequestDTO("Test", "test@email.com");
+
+        when(repository.updateNameAndEmail(eq(userId), eq("Test"), eq("test@email.com"), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.update(userId, request))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessageContaining("99");
+
+        verify(repository).updateNameAndEmail(eq(userId), eq("Test"), eq("test@email.com"), any(LocalDateTime.class));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldDeleteUserSuccessfully() {
+        Long userId = 1L;
+
+        when(repository.deleteUserById(userId)).thenReturn(1);
+
+        service.delete(userId);
+
+        verify(repository).deleteUserById(userId);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).delete(any(User.class));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDeletingNonExistent() {
+        Long userId = 99L;
+
+        when(repository.deleteUserById(userId)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.delete(userId))
+                .isInstanceOf(UserNotFoundException.class);
+
+        verify(repository, never()).delete(any());
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreRowsExist() {
+        when(repository.findPageAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(
+                new UserResponseDTO(11L, "João", "joao@email.com"),
+                new UserResponseDTO(12L, "Maria", "maria@email.com"),
+                new UserResponseDTO(13L, "Ana", "ana@email.com")));
+
+        UserPageResponseDTO page = service.findPage(10L, 2);
+
+        assertThat(page.getItems()).extracting(UserResponseDTO::getId).containsExactly(11L, 12L);
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+
+        verify(repository).findPageAfter(10L, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutCursor() {
+        when(repository.findPageAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new UserResponseDTO(1L, "João", "joao@email.com")));
+
+        UserPageResponseDTO page = service.findPage(null, 2);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldClampPageSizeToMaximum() {
+        when(repository.findPageAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        service.findPage(null, 1_000_000);
+
+        verify(repository).findPageAfter(0L, PageRequest.of(0, UserService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void shouldStreamAllUsersToConsumer() {
+        when(repository.streamAll()).thenReturn(Stream.of(
+                new UserResponseDTO(1L, "João", "joao@email.com"),
+                new UserResponseDTO(2L, "Maria", "maria@email.com")));
+
+        List<UserResponseDTO> received = new ArrayList<>();
+        service.streamAll(received::add);
+
+        assertThat(received).extracting(UserResponseDTO::getName).containsExactly("João", "Maria");
+    }
+
+    @Test
+    void shouldFindUserByEmail() {
+        when(repository.findDtoByEmail("ana@email.com"))
+                .thenReturn(Optional.of(new UserResponseDTO(3L, "Ana", "ana@email.com")));
+
+        assertThat(service.findByEmail("ana@email.com").getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenEmailNotFound() {
+        when(repository.findDtoByEmail("nobody@email.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.findByEmail("nobody@email.com"))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessageContaining("nobody@email.com");
+    }
+
+    @Test
+    void shouldSearchByLowerCasedEscapedPrefix() {
+        when(repository.searchByPrefix(eq("50!%!_off"), any(Pageable.class))).thenReturn(List.of());
+
+        service.search("  50%_OFF ", "prefix", 10);
+
+        verify(repository).searchByPrefix("50!%!_off", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void shouldRejectShortContainsSearch() {
+        assertThatThrownBy(() -> service.search("ab", "contains", 10))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldRejectUnknownMatchMode() {
+        assertThatThrownBy(() -> service.search("ana", "fuzzy", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("fuzzy");
+    }
+
+    @Test
+    void shouldTranslateDuplicateEmailOnCreate() {
+        when(repository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThatThrownBy(() -> service.create(new UserRequestDTO("Ana", "ana@email.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class)
+                .hasMessageContaining("ana@email.com");
+
+        verify(repository, never()).findDtoByEmail(any());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void shouldTranslateDuplicateEmailOnUpdate() {
+        when(repository.updateNameAndEmail(eq(1L), eq("Ana"), eq("taken@email.com"), any(LocalDateTime.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThatThrownBy(() -> service.update(1L, new UserRequestDTO("Ana", "taken@email.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void shouldUpsertInSingleStatement() {
+        UpsertedUser row = mock(UpsertedUser.class);
+        when(row.getId()).thenReturn(7L);
+        when(row.getInserted()).thenReturn(false);
+        when(repository.upsertByEmail(eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class))).thenReturn(row);
+
+        UpsertedUser result = service.upsert(new UserRequestDTO("Ana", "ana@email.com"));
+
+        assertThat(result.getId()).isEqualTo(7L);
+        assertThat(result.getInserted()).isFalse();
+        verify(repository, never()).save(any(User.class));
+    }
+
+    @Test
+    void shouldUpdateAtExpectedVersionWithoutExtraQuery() {
+        when(repository.updateNameAndEmailIfVersion(
+                eq(1L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class), eq(3L)))
+                .thenReturn(1);
+
+        UserResponseDTO result = service.update(1L, new UserRequestDTO("Ana", "ana@email.com"), 3L);
+
+        assertThat(result.getVersion()).isEqualTo(4L);
+        verify(repository, never()).findVersionById(any());
+    }
+
+    @Test
+    void shouldRejectUpdateAtStaleVersion() {
+        when(repository.updateNameAndEmailIfVersion(
+                eq(1L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class), eq(3L)))
+                .thenReturn(0);
+        when(repository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertThatThrownBy(() -> service.update(1L, new UserRequestDTO("Ana", "ana@email.com"), 3L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldReportMissingUserOnVersionedUpdate() {
+        when(repository.updateNameAndEmailIfVersion(
+                eq(99L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class), eq(3L)))
+                .thenReturn(0);
+        when(repository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.update(99L, new UserRequestDTO("Ana", "ana@email.com"), 3L))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void shouldRecordCreatedEventWithTheNewUser() {
+        User saved = new User("Ana", "ana@email.com");
+        saved.setId(5L);
+        when(repository.saveAndFlush(any(User.class))).thenReturn(saved);
+
+        service.create(new UserRequestDTO("Ana", "ana@email.com"));
+
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(eventRepository).save(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(UserEvent.Type.CREATED);
+        assertThat(event.getValue().getUserId()).isEqualTo(5L);
+        assertThat(event.getValue().getEmail()).isEqualTo("ana@email.com");
+        assertThat(event.getValue().getPosition()).isNull();
+    }
+
+    @Test
+    void shouldRecordUpdatedEventWithTheNewVersion() {
+        when(repository.updateNameAndEmailIfVersion(
+                eq(1L), eq("Ana"), eq("ana@email.com"), any(LocalDateTime.class), eq(3L)))
+                .thenReturn(1);
+
+        service.update(1L, new UserRequestDTO("Ana", "ana@email.com"), 3L);
+
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(eventRepository).save(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(UserEvent.Type.UPDATED);
+        assertThat(event.getValue().getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void shouldRecordDeletedEventOnlyWhenUserExisted() {
+        when(repository.deleteUserById(1L)).thenReturn(1);
+        when(repository.deleteUserById(2L)).thenReturn(0);
+
+        service.delete(1L);
+        assertThatThrownBy(() -> service.delete(2L)).isInstanceOf(UserNotFoundException.class);
+
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(eventRepository, times(1)).save(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(UserEvent.Type.DELETED);
+        assertThat(event.getValue().getUserId()).isEqualTo(1L);
+    }
+}